@@ -16,6 +16,7 @@ import java.nio.file.Paths;
 
 import com.google.inject.AbstractModule;
 import com.google.inject.Provides;
+import com.google.inject.Singleton;
 
 import cc.kave.commons.assertions.Asserts;
 import cc.kave.rsse.calls.extraction.features.FeatureExtractor;
@@ -32,13 +33,17 @@ import cc.kave.rsse.calls.usages.Usage;
 import cc.kave.rsse.calls.usages.features.UsageFeature;
 import exec.csharp.evaluation.Evaluation;
 import exec.csharp.evaluation.IEvaluation;
+import exec.csharp.queries.QueryBuilderFactory;
 import exec.csharp.queries.RandomQueryBuilder;
+import exec.csharp.utils.ModelHelper;
 import exec.csharp.utils.StorageHelper;
 import exec.validate_evaluation.microcommits.MicroCommitIo;
 
 public class Module extends AbstractModule {
 
 	private static final String ROOT_PATH = "/Volumes/Data/";
+	private static final int NUM_THREADS = Runtime.getRuntime().availableProcessors();
+	private static final long RANDOM_QUERY_SEED = RandomQueryBuilder.DEFAULT_SEED;
 
 	@Override
 	protected void configure() {
@@ -50,6 +55,8 @@ public class Module extends AbstractModule {
 		// TODO read ROOT_PATH from settings file
 		bind(StorageHelper.class).toInstance(new StorageHelper(ROOT_PATH));
 		bind(IEvaluation.class).to(Evaluation.class);
+		// shared, so subsequent evaluations can reuse the cached recommenders
+		bind(ModelHelper.class).in(Singleton.class);
 	}
 
 	private void bindMiningAndQueryOptions() {
@@ -60,9 +67,17 @@ public class Module extends AbstractModule {
 		bind(MiningOptions.class).toInstance(newMiningOptions(opts));
 	}
 
+	@Provides
+	public Evaluation provideEvaluation(ModelHelper models, QueryBuilderFactory queryBuilderFactory,
+			StorageHelper storageHelper, MiningOptions mOpts, QueryOptions qOpts) {
+		Evaluation eval = new Evaluation(models, queryBuilderFactory, storageHelper, mOpts, qOpts);
+		eval.setNumThreads(NUM_THREADS);
+		return eval;
+	}
+
 	@Provides
 	public RandomQueryBuilder provideRandomQueryBuilder() {
-		return new RandomQueryBuilder(6);
+		return new RandomQueryBuilder(6, RANDOM_QUERY_SEED);
 	}
 
 	@Provides
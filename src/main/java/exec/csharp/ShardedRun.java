@@ -0,0 +1,168 @@
+/*
+ * Copyright 2014 Technische Universität Darmstadt
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package exec.csharp;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import com.google.common.collect.Lists;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+
+import cc.kave.commons.model.naming.types.ITypeName;
+import cc.kave.commons.utils.io.Logger;
+import cc.kave.commons.utils.io.NestedZipFolders;
+import cc.kave.rsse.calls.options.MiningOptions;
+import cc.kave.rsse.calls.options.QueryOptions;
+import exec.csharp.evaluation.CompositeEvaluationConsumer;
+import exec.csharp.evaluation.Evaluation;
+import exec.csharp.evaluation.impl.AnalysisOfNoise;
+import exec.csharp.evaluation.impl.F1ByCategory;
+import exec.csharp.evaluation.impl.F1ByQueryMode;
+import exec.csharp.evaluation.impl.F1ByQueryType;
+import exec.csharp.evaluation.impl.F1Details;
+import exec.csharp.queries.QueryBuilderFactory;
+import exec.csharp.utils.EvaluationCheckpoints;
+import exec.csharp.utils.ModelHelper;
+import exec.csharp.utils.Shard;
+import exec.csharp.utils.StorageCase;
+import exec.csharp.utils.StorageHelper;
+import exec.validate_evaluation.categorized.CategorizedEvaluation;
+import exec.validate_evaluation.categorized.MicroCommitIoExtension;
+import exec.validate_evaluation.categorized.NoiseCategorizedEvaluation;
+import exec.validate_evaluation.categorized.ScenarioCategorizedEvaluation;
+import exec.validate_evaluation.microcommits.MicroCommitIo;
+
+/**
+ * Splits an evaluation into shards that run in separate JVMs, possibly on
+ * several machines that share the data folder. Every shard stores the
+ * checkpoints of its types, the merge step replays all of them and prints the
+ * same tables as a single run.
+ * 
+ * <pre>
+ * launch &lt;numShards&gt; &lt;eval&gt;              (all shards as local processes, then merge)
+ * shard &lt;index&gt; &lt;numShards&gt; &lt;eval&gt; [threads]
+ * merge &lt;eval&gt;
+ * </pre>
+ * 
+ * with eval being one of "f1", "noise", or "scenario".
+ */
+public class ShardedRun {
+
+	private static final String USAGE = "usage: (launch <numShards> | shard <index> <numShards> | merge) <f1|noise|scenario>";
+
+	public static void main(String[] args) throws IOException, InterruptedException {
+		Logger.setPrinting(true);
+		Logger.setDebugging(false);
+		Logger.setCapturing(false);
+
+		if (args.length == 3 && "launch".equals(args[0])) {
+			int numShards = Integer.parseInt(args[1]);
+			launch(numShards, args[2]);
+			evaluate(args[2], Shard.all(), true, -1);
+		} else if ((args.length == 4 || args.length == 5) && "shard".equals(args[0])) {
+			Shard shard = new Shard(Integer.parseInt(args[1]), Integer.parseInt(args[2]));
+			int numThreads = args.length == 5 ? Integer.parseInt(args[4]) : -1;
+			evaluate(args[3], shard, false, numThreads);
+		} else if (args.length == 2 && "merge".equals(args[0])) {
+			evaluate(args[1], Shard.all(), true, -1);
+		} else {
+			throw new IllegalArgumentException(USAGE);
+		}
+	}
+
+	private static void launch(int numShards, String evalName) throws IOException, InterruptedException {
+		int numThreads = Math.max(1, Runtime.getRuntime().availableProcessors() / numShards);
+		String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+
+		List<Process> processes = Lists.newLinkedList();
+		for (int i = 0; i < numShards; i++) {
+			List<String> cmd = Lists.newArrayList(java);
+			// forward settings like -Xmx to the shards
+			cmd.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+			cmd.add("-cp");
+			cmd.add(System.getProperty("java.class.path"));
+			cmd.add(ShardedRun.class.getName());
+			cmd.add("shard");
+			cmd.add(Integer.toString(i));
+			cmd.add(Integer.toString(numShards));
+			cmd.add(evalName);
+			cmd.add(Integer.toString(numThreads));
+			processes.add(new ProcessBuilder(cmd).inheritIO().start());
+		}
+
+		int numFailed = 0;
+		for (Process p : processes) {
+			if (p.waitFor() != 0) {
+				numFailed++;
+			}
+		}
+		if (numFailed > 0) {
+			throw new RuntimeException(String.format("%d of %d shards failed", numFailed, numShards));
+		}
+	}
+
+	private static void evaluate(String evalName, Shard shard, boolean isMerge, int numThreads) {
+		Injector injector = Guice.createInjector(new Module());
+		StorageHelper storageHelper = injector.getInstance(StorageHelper.class);
+		MiningOptions mOpts = injector.getInstance(MiningOptions.class);
+		QueryOptions qOpts = injector.getInstance(QueryOptions.class);
+		QueryBuilderFactory qbf = injector.getInstance(QueryBuilderFactory.class);
+
+		switch (evalName) {
+		case "f1":
+			Evaluation eval = injector.getInstance(Evaluation.class);
+			EvaluationCheckpoints evalCheckpoints = EvaluationCheckpoints.create(storageHelper, "Evaluation", mOpts,
+					qOpts, qbf);
+			evalCheckpoints.setMergeOnly(isMerge);
+			eval.setCheckpoints(evalCheckpoints);
+			eval.setShard(shard);
+			if (numThreads > 0) {
+				eval.setNumThreads(numThreads);
+			}
+			new CompositeEvaluationConsumer(eval, injector.getInstance(F1ByQueryMode.class),
+					injector.getInstance(F1ByQueryType.class), injector.getInstance(F1ByCategory.class),
+					injector.getInstance(F1Details.class), injector.getInstance(AnalysisOfNoise.class)).run();
+			break;
+		case "noise":
+		case "scenario":
+			NestedZipFolders<ITypeName> usages = storageHelper.getNestedZipFolder(StorageCase.USAGES);
+			ModelHelper mh = injector.getInstance(ModelHelper.class);
+			MicroCommitIoExtension mcIo = new MicroCommitIoExtension(injector.getInstance(MicroCommitIo.class));
+
+			CategorizedEvaluation<?> catEval;
+			String name;
+			if ("noise".equals(evalName)) {
+				catEval = new NoiseCategorizedEvaluation(usages, mh, mcIo, qbf);
+				name = "NoiseCategorizedEvaluation";
+			} else {
+				catEval = new ScenarioCategorizedEvaluation(usages, mh, mcIo, qbf);
+				name = "ScenarioCategorizedEvaluation";
+			}
+			EvaluationCheckpoints catCheckpoints = EvaluationCheckpoints.create(storageHelper, name, mOpts, qOpts,
+					qbf);
+			catCheckpoints.setMergeOnly(isMerge);
+			catEval.setCheckpoints(catCheckpoints);
+			catEval.setShard(shard);
+			catEval.run();
+			break;
+		default:
+			throw new IllegalArgumentException(USAGE);
+		}
+	}
+}
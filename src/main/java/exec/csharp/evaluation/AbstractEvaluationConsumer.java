@@ -16,35 +16,41 @@
 package exec.csharp.evaluation;
 
 import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.Lists;
 
 import cc.kave.commons.model.naming.types.ITypeName;
 import cc.kave.commons.utils.io.Logger;
 import cc.kave.rsse.calls.usages.DefinitionSiteKind;
-import cc.kave.rsse.calls.usages.Usage;
 import exec.csharp.queries.QueryMode;
 import exec.validate_evaluation.microcommits.MicroCommit;
 
 public abstract class AbstractEvaluationConsumer implements IEvaluationConsumer {
 
+	// only set for partials, which run on worker threads and collect their
+	// output until they are merged, so the log of every type stays in one block
+	private List<Runnable> bufferedOutput;
+
 	@Override
-	public void skippingType(ITypeName type, List<Usage> us, List<MicroCommit> histories) {
-		Logger.log("");
-		Logger.log("--- skipping %s (%d usage, %d micro commits)", type, us.size(), histories.size());
+	public void skippingType(ITypeName type, int numUsages, List<MicroCommit> histories) {
+		log("");
+		log("--- skipping %s (%d usage, %d micro commits)", type, numUsages, histories.size());
 	}
 
 	@Override
-	public void startingType(ITypeName type, List<Usage> usages, List<MicroCommit> histories) {
-		Logger.log("");
-		Logger.log("###");
-		Logger.log("### %s (%d usages, %d histories)", type, usages.size(), histories.size());
-		Logger.log("###");
-		Logger.log("");
+	public void startingType(ITypeName type, int numUsages, List<MicroCommit> histories) {
+		log("");
+		log("###");
+		log("### %s (%d usages, %d histories)", type, numUsages, histories.size());
+		log("###");
+		log("");
 	}
 
 	@Override
 	public void startingQueryMode(QueryMode mode) {
-		Logger.log("  %s", mode);
-		Logger.log("     ");
+		log("  %s", mode);
+		log("     ");
 	}
 
 	@Override
@@ -58,4 +64,56 @@ public abstract class AbstractEvaluationConsumer implements IEvaluationConsumer
 	@Override
 	public void registerQuery(DefinitionSiteKind def, int before, int add, int after) {
 	}
+
+	/**
+	 * marks a new instance as partial, see
+	 * {@link IMergeableEvaluationConsumer#createPartial()}
+	 */
+	protected static <T extends AbstractEvaluationConsumer> T asPartial(T partial) {
+		partial.bufferedOutput = Lists.newArrayList();
+		return partial;
+	}
+
+	/**
+	 * replays the output of a partial, needs to be called from
+	 * {@link IMergeableEvaluationConsumer#merge(IMergeableEvaluationConsumer)}
+	 */
+	protected static void replayOutput(AbstractEvaluationConsumer partial) {
+		if (partial.bufferedOutput != null) {
+			for (Runnable r : partial.bufferedOutput) {
+				r.run();
+			}
+			partial.bufferedOutput.clear();
+		}
+	}
+
+	protected void log(String msg, Object... args) {
+		String text = String.format(msg, args);
+		output(() -> Logger.log("%s", text));
+	}
+
+	protected void append(String msg, Object... args) {
+		String text = String.format(msg, args);
+		output(() -> Logger.append("%s", text));
+	}
+
+	protected void print(String msg, Object... args) {
+		String text = String.format(msg, args);
+		output(() -> System.out.print(text));
+	}
+
+	private void output(Runnable r) {
+		if (bufferedOutput == null) {
+			r.run();
+		} else {
+			bufferedOutput.add(r);
+		}
+	}
+
+	protected static <K> void mergeCountsInto(Map<K, Integer> from, Map<K, Integer> into) {
+		for (K key : from.keySet()) {
+			Integer count = into.get(key);
+			into.put(key, (count == null ? 0 : count) + from.get(key));
+		}
+	}
 }
\ No newline at end of file
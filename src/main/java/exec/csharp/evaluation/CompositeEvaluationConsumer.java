@@ -0,0 +1,138 @@
+/*
+ * Copyright 2014 Technische Universität Darmstadt
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package exec.csharp.evaluation;
+
+import java.util.List;
+
+import com.google.common.collect.Lists;
+
+import cc.kave.commons.assertions.Asserts;
+import cc.kave.commons.model.naming.types.ITypeName;
+import cc.kave.rsse.calls.usages.DefinitionSiteKind;
+import cc.kave.rsse.calls.usages.Usage;
+import exec.csharp.queries.QueryMode;
+import exec.validate_evaluation.microcommits.MicroCommit;
+
+/**
+ * Drives a single evaluation pass (one model per type, one query per commit)
+ * and broadcasts every callback to all contained consumers.
+ */
+public class CompositeEvaluationConsumer implements IMergeableEvaluationConsumer {
+
+	private final IEvaluation eval;
+	private final List<IMergeableEvaluationConsumer> consumers;
+
+	public CompositeEvaluationConsumer(IEvaluation eval, IMergeableEvaluationConsumer... consumers) {
+		this(eval, Lists.newArrayList(consumers));
+	}
+
+	private CompositeEvaluationConsumer(IEvaluation eval, List<IMergeableEvaluationConsumer> consumers) {
+		Asserts.assertFalse(consumers.isEmpty());
+		this.eval = eval;
+		this.consumers = consumers;
+	}
+
+	public List<IMergeableEvaluationConsumer> getConsumers() {
+		return consumers;
+	}
+
+	@Override
+	public void run() {
+		init();
+		eval.run(this);
+	}
+
+	@Override
+	public void init() {
+		for (IEvaluationConsumer c : consumers) {
+			c.init();
+		}
+	}
+
+	@Override
+	public IMergeableEvaluationConsumer createPartial() {
+		List<IMergeableEvaluationConsumer> partials = Lists.newArrayList();
+		for (IMergeableEvaluationConsumer c : consumers) {
+			partials.add(c.createPartial());
+		}
+		return new CompositeEvaluationConsumer(eval, partials);
+	}
+
+	@Override
+	public void merge(IMergeableEvaluationConsumer partial) {
+		List<IMergeableEvaluationConsumer> partials = ((CompositeEvaluationConsumer) partial).consumers;
+		Asserts.assertEquals(consumers.size(), partials.size());
+		for (int i = 0; i < consumers.size(); i++) {
+			consumers.get(i).merge(partials.get(i));
+		}
+	}
+
+	@Override
+	public void startingType(ITypeName type, int numUsages, List<MicroCommit> histories) {
+		for (IEvaluationConsumer c : consumers) {
+			c.startingType(type, numUsages, histories);
+		}
+	}
+
+	@Override
+	public void skippingType(ITypeName type, int numUsages, List<MicroCommit> histories) {
+		for (IEvaluationConsumer c : consumers) {
+			c.skippingType(type, numUsages, histories);
+		}
+	}
+
+	@Override
+	public void startingQueryMode(QueryMode mode) {
+		for (IEvaluationConsumer c : consumers) {
+			c.startingQueryMode(mode);
+		}
+	}
+
+	@Override
+	public void skipCommit_NoChange(QueryMode mode) {
+		for (IEvaluationConsumer c : consumers) {
+			c.skipCommit_NoChange(mode);
+		}
+	}
+
+	@Override
+	public void skipCommit_NoAddition(QueryMode mode) {
+		for (IEvaluationConsumer c : consumers) {
+			c.skipCommit_NoAddition(mode);
+		}
+	}
+
+	@Override
+	public void registerQuery(DefinitionSiteKind def, int before, int add, int after) {
+		for (IEvaluationConsumer c : consumers) {
+			c.registerQuery(def, before, add, after);
+		}
+	}
+
+	@Override
+	public void addResult(Usage start, Usage end, QueryMode queryMode, double f1) {
+		for (IEvaluationConsumer c : consumers) {
+			c.addResult(start, end, queryMode, f1);
+		}
+	}
+
+	@Override
+	public void finish() {
+		for (IEvaluationConsumer c : consumers) {
+			c.finish();
+		}
+	}
+}
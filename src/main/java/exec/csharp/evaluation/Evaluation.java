@@ -15,20 +15,25 @@
  */
 package exec.csharp.evaluation;
 
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import com.google.inject.Inject;
 
+import cc.kave.commons.assertions.Asserts;
 import cc.kave.commons.evaluation.BoxplotData;
 import cc.kave.commons.evaluation.Measure;
 import cc.kave.commons.model.naming.codeelements.IMethodName;
 import cc.kave.commons.model.naming.types.ITypeName;
 import cc.kave.commons.utils.io.Logger;
 import cc.kave.commons.utils.io.NestedZipFolders;
-import cc.kave.rsse.calls.ICallsRecommender;
-import cc.kave.rsse.calls.datastructures.Tuple;
 import cc.kave.rsse.calls.options.MiningOptions;
 import cc.kave.rsse.calls.options.QueryOptions;
 import cc.kave.rsse.calls.usages.CallSite;
@@ -37,8 +42,11 @@ import cc.kave.rsse.calls.usages.Usage;
 import exec.csharp.queries.IQueryBuilder;
 import exec.csharp.queries.QueryBuilderFactory;
 import exec.csharp.queries.QueryMode;
+import exec.csharp.utils.EvaluationCheckpoints;
 import exec.csharp.utils.ModelHelper;
+import exec.csharp.utils.ProposalCache;
 import exec.csharp.utils.QueryUtils;
+import exec.csharp.utils.Shard;
 import exec.csharp.utils.StorageCase;
 import exec.csharp.utils.StorageHelper;
 import exec.validate_evaluation.microcommits.MicroCommit;
@@ -48,112 +56,235 @@ public class Evaluation implements IEvaluation {
 	private ModelHelper models;
 	private QueryBuilderFactory queryBuilderFactory;
 	private NestedZipFolders<ITypeName> historyDir;
-	private NestedZipFolders<ITypeName> usages;
 	private MiningOptions mOpts;
 	private QueryOptions qOpts;
-	private ICallsRecommender<Query> rec;
-	private IQueryBuilder<Usage, Query> queryBuilder;
-	private IEvaluationConsumer consumer;
+	private int numThreads = 1;
+	private EvaluationCheckpoints checkpoints;
+	private Shard shard = Shard.all();
 
 	@Inject
 	public Evaluation(ModelHelper models, QueryBuilderFactory queryBuilderFactory, StorageHelper storageHelper,
 			MiningOptions mOpts, QueryOptions qOpts) {
 		this.models = models;
 		this.queryBuilderFactory = queryBuilderFactory;
-		this.usages = storageHelper.getNestedZipFolder(StorageCase.USAGES);
 		this.historyDir = storageHelper.getNestedZipFolder(StorageCase.MICRO_COMMITS);
 		this.mOpts = mOpts;
 		this.qOpts = qOpts;
 	}
 
+	public void setNumThreads(int numThreads) {
+		Asserts.assertGreaterOrEqual(numThreads, 1);
+		this.numThreads = numThreads;
+	}
+
+	public void setCheckpoints(EvaluationCheckpoints checkpoints) {
+		this.checkpoints = checkpoints;
+	}
+
+	public void setShard(Shard shard) {
+		Asserts.assertNotNull(shard);
+		this.shard = shard;
+	}
+
 	@Override
 	public void run(IEvaluationConsumer consumer) {
-		this.consumer = consumer;
 		Logger.log("");
 		Logger.log("Running: %s -- %s", getClass().getSimpleName(), consumer.getClass().getSimpleName());
 		Logger.log("options: %s%s", mOpts, qOpts);
+		if (shard.getNumShards() > 1) {
+			Logger.log("(only evaluating %s)", shard);
+		}
 		Logger.log("");
 
-		for (ITypeName type : historyDir.findKeys()) {
-			List<MicroCommit> histories = historyDir.readAllZips(type, MicroCommit.class);
-			List<Usage> us = usages.readAllZips(type, Usage.class);
-			if (us.size() < 1) {
-				consumer.skippingType(type, us, histories);
-				continue;
+		if (numThreads > 1 && consumer instanceof IMergeableEvaluationConsumer) {
+			Logger.log("(parallel execution with %d threads)", numThreads);
+			runInParallel((IMergeableEvaluationConsumer) consumer);
+		} else {
+			for (ITypeName type : shard.filter(historyDir.findKeys())) {
+				evaluateType(type, consumer);
 			}
+		}
+
+		consumer.finish();
+	}
 
-			consumer.startingType(type, us, histories);
+	/**
+	 * Every type is evaluated on a worker thread with its own partial consumer.
+	 * The ModelHelper is shared and thread-safe, the partials buffer their
+	 * output until they are merged.
+	 */
+	private void runInParallel(IMergeableEvaluationConsumer consumer) {
+		ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+		try {
+			List<Future<IMergeableEvaluationConsumer>> partials = Lists.newLinkedList();
+			for (ITypeName type : shard.filter(historyDir.findKeys())) {
+				IMergeableEvaluationConsumer partial = consumer.createPartial();
+				partials.add(executor.submit(() -> {
+					evaluateType(type, partial);
+					return partial;
+				}));
+			}
+			// merging in key order keeps the results independent of scheduling
+			for (Future<IMergeableEvaluationConsumer> partial : partials) {
+				consumer.merge(partial.get());
+			}
+		} catch (InterruptedException | ExecutionException e) {
+			throw new RuntimeException(e);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
 
-			rec = models.get(type);
+	private void evaluateType(ITypeName type, IEvaluationConsumer consumer) {
+		List<MicroCommit> histories = historyDir.readAllZips(type, MicroCommit.class);
+		// the usages themselves are only read by the model helper
+		int numUsages = models.getNumUsages(type);
+		if (numUsages < 1) {
+			consumer.skippingType(type, numUsages, histories);
+			return;
+		}
 
-			for (QueryMode mode : QueryMode.values()) {
-				boolean shouldLog = mode == QueryMode.LINEAR;
+		consumer.startingType(type, numUsages, histories);
 
-				consumer.startingQueryMode(mode);
-				queryBuilder = queryBuilderFactory.get(mode);
+		// finished types are replayed from their checkpoint without a model
+		List<Double> storedF1s = checkpoints == null ? null : checkpoints.read(type);
+		Iterator<Double> replay = storedF1s == null ? null : storedF1s.iterator();
+		ProposalCache proposals = replay == null ? new ProposalCache(models.get(type)) : null;
 
-				for (MicroCommit t : histories) {
+		QueryMode[] modes = QueryMode.values();
+		List<IQueryBuilder<Usage, Query>> queryBuilders = Lists.newArrayList();
+		for (QueryMode mode : modes) {
+			queryBuilders.add(queryBuilderFactory.get(mode));
+		}
 
-					Usage start = t.getStart();
-					Usage end = t.getEnd();
+		// every commit is only visited once and its diff and expectation are
+		// shared between all query modes
+		List<CommitResult> results = Lists.newArrayListWithCapacity(histories.size());
+		for (MicroCommit t : histories) {
+			results.add(evaluateCommit(type, t, queryBuilders, replay));
+		}
+		if (replay != null) {
+			EvaluationCheckpoints.assertReplayFinished(replay, type);
+		} else {
+			// all queries of the type are answered in one batch
+			answerQueries(results, proposals);
+			if (checkpoints != null) {
+				checkpoints.store(type, getF1s(results));
+			}
+		}
 
-					if (shouldSkip(start, end, shouldLog, mode)) {
-						continue;
-					}
+		// results are reported per mode, so consumers see the same sequence of
+		// callbacks as in a mode-by-mode evaluation
+		for (int i = 0; i < modes.length; i++) {
+			QueryMode mode = modes[i];
+			boolean shouldLog = mode == QueryMode.LINEAR;
 
-					double f1 = measurePredictionQuality(start, end);
-					consumer.addResult(start, end, mode, f1);
+			consumer.startingQueryMode(mode);
+
+			for (CommitResult r : results) {
+				if (r.f1s == null) {
+					if (shouldLog) {
+						if (r.hasNoChange) {
+							consumer.skipCommit_NoChange(mode);
+						} else {
+							consumer.skipCommit_NoAddition(mode);
+						}
+					}
+					continue;
 				}
+				consumer.addResult(r.start, r.end, mode, r.f1s[i]);
 			}
 		}
-
-		consumer.finish();
 	}
 
-	private boolean shouldSkip(Usage start, Usage end, boolean shouldLog, QueryMode mode) {
-		int numAdditions = QueryUtils.countAdditions(start, end);
-		int numRemovals = QueryUtils.countRemovals(start, end);
+	private CommitResult evaluateCommit(ITypeName type, MicroCommit t, List<IQueryBuilder<Usage, Query>> queryBuilders,
+			Iterator<Double> replay) {
+		CommitResult r = new CommitResult();
+		r.start = t.getStart();
+		r.end = t.getEnd();
+
+		int numAdditions = QueryUtils.countAdditions(r.start, r.end);
 		if (0 == numAdditions) {
-			if (shouldLog) {
-				if (0 == numRemovals) {
-					consumer.skipCommit_NoChange(mode);
-				} else {
-					consumer.skipCommit_NoAddition(mode);
-				}
+			r.hasNoChange = 0 == QueryUtils.countRemovals(r.start, r.end);
+			return r;
+		}
+
+		r.f1s = new double[queryBuilders.size()];
+		if (replay != null) {
+			for (int i = 0; i < r.f1s.length; i++) {
+				r.f1s[i] = EvaluationCheckpoints.nextReplayed(replay, type);
+			}
+		} else {
+			r.endCalls = Lists.newArrayList(r.end.getReceiverCallsites());
+			r.queries = Lists.newArrayListWithCapacity(queryBuilders.size());
+			for (IQueryBuilder<Usage, Query> queryBuilder : queryBuilders) {
+				r.queries.add(queryBuilder.createQueries(r.start, r.end));
 			}
-			return true;
 		}
-		return false;
+		return r;
 	}
 
-	private double measurePredictionQuality(Usage start, Usage end) {
-		List<Query> queries = queryBuilder.createQueries(start, end);
-		BoxplotData res = new BoxplotData();
-		for (Query q : queries) {
-			Set<IMethodName> proposals = getProposals(rec, q);
-			Set<IMethodName> expectation = getExpectation(q, end);
-			Measure measure = Measure.newMeasure(expectation, proposals);
-			res.add(measure.getF1());
+	private void answerQueries(List<CommitResult> results, ProposalCache proposalCache) {
+		List<Query> batch = Lists.newArrayList();
+		for (CommitResult r : results) {
+			if (r.queries != null) {
+				for (List<Query> queries : r.queries) {
+					batch.addAll(queries);
+				}
+			}
+		}
+		Iterator<Set<IMethodName>> proposals = proposalCache.getProposals(batch).iterator();
+
+		for (CommitResult r : results) {
+			if (r.queries == null) {
+				continue;
+			}
+			for (int i = 0; i < r.f1s.length; i++) {
+				BoxplotData res = new BoxplotData();
+				for (Query q : r.queries.get(i)) {
+					Set<IMethodName> expectation = getExpectation(q, r.endCalls);
+					Measure measure = Measure.newMeasure(expectation, proposals.next());
+					res.add(measure.getF1());
+				}
+				r.f1s[i] = res.getMean();
+			}
+			// not needed anymore, only the f1 values are kept
+			r.queries = null;
+			r.endCalls = null;
 		}
-		return res.getMean();
 	}
 
-	private Set<IMethodName> getExpectation(Usage q, Usage end) {
+	private static List<Double> getF1s(List<CommitResult> results) {
+		List<Double> f1s = Lists.newArrayList();
+		for (CommitResult r : results) {
+			if (r.f1s != null) {
+				for (double f1 : r.f1s) {
+					f1s.add(f1);
+				}
+			}
+		}
+		return f1s;
+	}
 
+	private Set<IMethodName> getExpectation(Usage q, List<CallSite> endCalls) {
+		Set<CallSite> queryCalls = q.getAllCallsites();
 		Set<IMethodName> expectation = Sets.newLinkedHashSet();
-		for (CallSite cs : end.getReceiverCallsites()) {
-			if (!q.getAllCallsites().contains(cs)) {
+		for (CallSite cs : endCalls) {
+			if (!queryCalls.contains(cs)) {
 				expectation.add(cs.getMethod());
 			}
 		}
 		return expectation;
 	}
 
-	private Set<IMethodName> getProposals(ICallsRecommender<Query> rec, Query query) {
-		Set<IMethodName> proposals = Sets.newHashSet();
-		for (Tuple<IMethodName, Double> p : rec.query(query)) {
-			proposals.add(p.getFirst());
-		}
-		return proposals;
+	private static class CommitResult {
+		private Usage start;
+		private Usage end;
+		// null, if the commit has been skipped
+		private double[] f1s;
+		private boolean hasNoChange;
+		// the queries per mode, until the batch has been answered
+		private List<List<Query>> queries;
+		private List<CallSite> endCalls;
 	}
 }
\ No newline at end of file
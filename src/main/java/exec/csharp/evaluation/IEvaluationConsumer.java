@@ -27,9 +27,11 @@ public interface IEvaluationConsumer {
 
 	void run();
 
-	void startingType(ITypeName type, List<Usage> usages, List<MicroCommit> histories);
+	void init();
 
-	void skippingType(ITypeName type, List<Usage> us, List<MicroCommit> histories);
+	void startingType(ITypeName type, int numUsages, List<MicroCommit> histories);
+
+	void skippingType(ITypeName type, int numUsages, List<MicroCommit> histories);
 
 	void startingQueryMode(QueryMode mode);
 
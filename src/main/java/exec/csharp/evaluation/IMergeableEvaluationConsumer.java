@@ -0,0 +1,34 @@
+/*
+ * Copyright 2014 Technische Universität Darmstadt
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package exec.csharp.evaluation;
+
+/**
+ * Consumer that can be split into thread-confined partials (one per evaluated
+ * type) which are merged back into the original consumer before finish().
+ */
+public interface IMergeableEvaluationConsumer extends IEvaluationConsumer {
+
+	/**
+	 * @return an empty consumer with the same configuration that can collect
+	 *         results independently of this instance
+	 */
+	IMergeableEvaluationConsumer createPartial();
+
+	/**
+	 * adds all results that have been collected in the partial to this consumer
+	 */
+	void merge(IMergeableEvaluationConsumer partial);
+}
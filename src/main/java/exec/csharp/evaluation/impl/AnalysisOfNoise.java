@@ -20,19 +20,20 @@ import java.util.Map;
 import com.google.common.collect.Maps;
 import com.google.inject.Inject;
 
-import cc.kave.commons.evaluation.BoxplotData;
 import cc.kave.rsse.calls.usages.Usage;
 import exec.csharp.evaluation.AbstractEvaluationConsumer;
 import exec.csharp.evaluation.IEvaluation;
+import exec.csharp.evaluation.IMergeableEvaluationConsumer;
 import exec.csharp.queries.QueryMode;
 import exec.csharp.utils.NoiseMode;
 import exec.csharp.utils.QueryJudge;
+import exec.csharp.utils.StatsAccumulator;
 
-public class AnalysisOfNoise extends AbstractEvaluationConsumer {
+public class AnalysisOfNoise extends AbstractEvaluationConsumer implements IMergeableEvaluationConsumer {
 
 	private final IEvaluation eval;
 
-	private Map<QueryMode, Map<NoiseMode, BoxplotData>> results;
+	private Map<QueryMode, Map<NoiseMode, StatsAccumulator>> results;
 
 	@Inject
 	public AnalysisOfNoise(IEvaluation eval) {
@@ -42,14 +43,37 @@ public class AnalysisOfNoise extends AbstractEvaluationConsumer {
 
 	@Override
 	public void run() {
+		init();
+		eval.run(this);
+	}
+
+	@Override
+	public void init() {
 		results = Maps.newLinkedHashMap();
 		for (QueryMode qm : QueryMode.values()) {
 			results.put(qm, Maps.newLinkedHashMap());
 			for (NoiseMode nm : NoiseMode.values()) {
-				results.get(qm).put(nm, new BoxplotData());
+				results.get(qm).put(nm, new StatsAccumulator());
+			}
+		}
+	}
+
+	@Override
+	public IMergeableEvaluationConsumer createPartial() {
+		AnalysisOfNoise partial = asPartial(new AnalysisOfNoise(eval));
+		partial.init();
+		return partial;
+	}
+
+	@Override
+	public void merge(IMergeableEvaluationConsumer partial) {
+		AnalysisOfNoise other = (AnalysisOfNoise) partial;
+		replayOutput(other);
+		for (QueryMode qm : QueryMode.values()) {
+			for (NoiseMode nm : NoiseMode.values()) {
+				results.get(qm).get(nm).merge(other.results.get(qm).get(nm));
 			}
 		}
-		eval.run(this);
 	}
 
 	@Override
@@ -92,8 +116,8 @@ public class AnalysisOfNoise extends AbstractEvaluationConsumer {
 		// counts
 		System.out.printf("count");
 		for (NoiseMode nm : NoiseMode.values()) {
-			BoxplotData data = results.get(QueryMode.LINEAR).get(nm);
-			int numValues = data.getRawValues().length;
+			StatsAccumulator data = results.get(QueryMode.LINEAR).get(nm);
+			long numValues = data.getNumValues();
 			System.out.print("\t" + numValues);
 		}
 		System.out.println();
@@ -20,19 +20,19 @@ import java.util.Map;
 import com.google.common.collect.Maps;
 import com.google.inject.Inject;
 
-import cc.kave.commons.evaluation.BoxplotData;
-import cc.kave.commons.utils.io.Logger;
 import cc.kave.rsse.calls.usages.Usage;
 import exec.csharp.evaluation.AbstractEvaluationConsumer;
 import exec.csharp.evaluation.IEvaluation;
+import exec.csharp.evaluation.IMergeableEvaluationConsumer;
 import exec.csharp.queries.QueryMode;
 import exec.csharp.utils.QueryJudge;
+import exec.csharp.utils.StatsAccumulator;
 
-public class F1ByCategory extends AbstractEvaluationConsumer {
+public class F1ByCategory extends AbstractEvaluationConsumer implements IMergeableEvaluationConsumer {
 
 	private final IEvaluation eval;
 
-	private Map<QueryMode, Map<QueryContent, BoxplotData>> res;
+	private Map<QueryMode, Map<QueryContent, StatsAccumulator>> res;
 	private Map<QueryContent, Integer> counts;
 
 	@Inject
@@ -43,13 +43,19 @@ public class F1ByCategory extends AbstractEvaluationConsumer {
 
 	@Override
 	public void run() {
+		init();
+		eval.run(this);
+	}
+
+	@Override
+	public void init() {
 		res = Maps.newLinkedHashMap();
 		for (QueryMode qm : QueryMode.values()) {
-			Map<QueryContent, BoxplotData> qms = Maps.newLinkedHashMap();
+			Map<QueryContent, StatsAccumulator> qms = Maps.newLinkedHashMap();
 			res.put(qm, qms);
 
 			for (QueryContent qc : QueryContent.values()) {
-				qms.put(qc, new BoxplotData());
+				qms.put(qc, new StatsAccumulator());
 			}
 		}
 
@@ -57,13 +63,30 @@ public class F1ByCategory extends AbstractEvaluationConsumer {
 		for (QueryContent qc : QueryContent.values()) {
 			counts.put(qc, 0);
 		}
+	}
 
-		eval.run(this);
+	@Override
+	public IMergeableEvaluationConsumer createPartial() {
+		F1ByCategory partial = asPartial(new F1ByCategory(eval));
+		partial.init();
+		return partial;
+	}
+
+	@Override
+	public void merge(IMergeableEvaluationConsumer partial) {
+		F1ByCategory other = (F1ByCategory) partial;
+		replayOutput(other);
+		for (QueryMode qm : QueryMode.values()) {
+			for (QueryContent qc : QueryContent.values()) {
+				res.get(qm).get(qc).merge(other.res.get(qm).get(qc));
+			}
+		}
+		mergeCountsInto(other.counts, counts);
 	}
 
 	@Override
 	public void addResult(Usage start, Usage end, QueryMode queryMode, double f1) {
-		Logger.append(".");
+		append(".");
 		QueryContent qc = categorize(start, end);
 
 		res.get(queryMode).get(qc).add(f1);
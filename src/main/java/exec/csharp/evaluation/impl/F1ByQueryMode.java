@@ -21,23 +21,24 @@ import java.util.Map;
 import com.google.common.collect.Maps;
 import com.google.inject.Inject;
 
-import cc.kave.commons.evaluation.BoxplotData;
 import cc.kave.commons.model.naming.types.ITypeName;
 import cc.kave.commons.utils.io.Logger;
 import cc.kave.rsse.calls.usages.DefinitionSiteKind;
 import cc.kave.rsse.calls.usages.Usage;
 import exec.csharp.evaluation.AbstractEvaluationConsumer;
 import exec.csharp.evaluation.IEvaluation;
+import exec.csharp.evaluation.IMergeableEvaluationConsumer;
 import exec.csharp.queries.QueryMode;
 import exec.csharp.utils.MapSorter;
 import exec.csharp.utils.QueryUtils;
+import exec.csharp.utils.StatsAccumulator;
 import exec.validate_evaluation.microcommits.MicroCommit;
 
-public class F1ByQueryMode extends AbstractEvaluationConsumer {
+public class F1ByQueryMode extends AbstractEvaluationConsumer implements IMergeableEvaluationConsumer {
 
 	private final IEvaluation eval;
 
-	private Map<QueryMode, BoxplotData> results;
+	private Map<QueryMode, StatsAccumulator> results;
 	private int queriesTotal;
 	private int numFilteredNoUsages;
 	private int numFilteredNoChange;
@@ -58,9 +59,15 @@ public class F1ByQueryMode extends AbstractEvaluationConsumer {
 
 	@Override
 	public void run() {
+		init();
+		eval.run(this);
+	}
+
+	@Override
+	public void init() {
 		results = Maps.newHashMap();
 		for (QueryMode mode : QueryMode.values()) {
-			results.put(mode, new BoxplotData());
+			results.put(mode, new StatsAccumulator());
 		}
 
 		queriesTotal = 0;
@@ -75,20 +82,47 @@ public class F1ByQueryMode extends AbstractEvaluationConsumer {
 		beforeCounts = Maps.newHashMap();
 		addCounts = Maps.newHashMap();
 		afterCounts = Maps.newHashMap();
+	}
 
-		eval.run(this);
+	@Override
+	public IMergeableEvaluationConsumer createPartial() {
+		F1ByQueryMode partial = asPartial(new F1ByQueryMode(eval));
+		partial.init();
+		return partial;
+	}
+
+	@Override
+	public void merge(IMergeableEvaluationConsumer partial) {
+		F1ByQueryMode other = (F1ByQueryMode) partial;
+		replayOutput(other);
+		for (QueryMode mode : QueryMode.values()) {
+			results.get(mode).merge(other.results.get(mode));
+		}
+
+		queriesTotal += other.queriesTotal;
+		numFilteredNoUsages += other.numFilteredNoUsages;
+		numFilteredNoChange += other.numFilteredNoChange;
+		numFilteredNoAddition += other.numFilteredNoAddition;
+		numFiltered01 += other.numFiltered01;
+
+		mergeCountsInto(other.queryTypeCounts, queryTypeCounts);
+		mergeCountsInto(other.typeCounts, typeCounts);
+		mergeCountsInto(other.defCounts, defCounts);
+		mergeCountsInto(other.beforeCounts, beforeCounts);
+		mergeCountsInto(other.addCounts, addCounts);
+		mergeCountsInto(other.afterCounts, afterCounts);
 	}
 
 	@Override
-	public void skippingType(ITypeName type, List<Usage> us, List<MicroCommit> histories) {
-		super.skippingType(type, us, histories);
+	public void skippingType(ITypeName type, int numUsages, List<MicroCommit> histories) {
+		super.skippingType(type, numUsages, histories);
 		queriesTotal += histories.size();
 		numFilteredNoUsages += histories.size();
 	}
 
 	@Override
-	public void startingType(ITypeName type, List<Usage> usages, List<MicroCommit> histories) {
-		super.startingType(type, usages, histories);
+	public void startingType(ITypeName type, int numUsages, List<MicroCommit> histories) {
+		super.startingType(type, numUsages, histories);
 		queriesTotal += histories.size();
 	}
 
@@ -122,7 +156,7 @@ public class F1ByQueryMode extends AbstractEvaluationConsumer {
 
 		String diffString = QueryUtils.toDiffString(start, end);
 		logNewLineIfNecessary();
-		Logger.append("%.3f (%s), ", f1, diffString);
+		append("%.3f (%s), ", f1, diffString);
 
 		if (queryMode.equals(QueryMode.LINEAR)) {
 			count(queryTypeCounts, diffString);
@@ -133,7 +167,7 @@ public class F1ByQueryMode extends AbstractEvaluationConsumer {
 	private void logNewLineIfNecessary() {
 		if (++numResultsInCurrentLine > 12) {
 			numResultsInCurrentLine = 0;
-			Logger.log("\t\t");
+			log("\t\t");
 		}
 	}
 
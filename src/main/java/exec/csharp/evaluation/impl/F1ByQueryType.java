@@ -22,19 +22,20 @@ import com.google.common.collect.Maps;
 import com.google.inject.Inject;
 
 import cc.kave.commons.evaluation.Boxplot;
-import cc.kave.commons.evaluation.BoxplotData;
 import cc.kave.commons.utils.io.Logger;
 import cc.kave.rsse.calls.usages.Usage;
 import exec.csharp.evaluation.AbstractEvaluationConsumer;
 import exec.csharp.evaluation.IEvaluation;
+import exec.csharp.evaluation.IMergeableEvaluationConsumer;
 import exec.csharp.queries.QueryMode;
 import exec.csharp.utils.QueryUtils;
+import exec.csharp.utils.StatsAccumulator;
 
-public class F1ByQueryType extends AbstractEvaluationConsumer {
+public class F1ByQueryType extends AbstractEvaluationConsumer implements IMergeableEvaluationConsumer {
 
 	private final IEvaluation eval;
 
-	private Map<String, Map<QueryMode, Map<Integer, BoxplotData>>> results;
+	private Map<String, Map<QueryMode, Map<Integer, StatsAccumulator>>> results;
 
 	@Inject
 	public F1ByQueryType(IEvaluation eval) {
@@ -43,13 +44,40 @@ public class F1ByQueryType extends AbstractEvaluationConsumer {
 
 	@Override
 	public void run() {
-		results = Maps.newHashMap();
+		init();
 		eval.run(this);
 	}
 
+	@Override
+	public void init() {
+		results = Maps.newHashMap();
+	}
+
+	@Override
+	public IMergeableEvaluationConsumer createPartial() {
+		F1ByQueryType partial = asPartial(new F1ByQueryType(eval));
+		partial.init();
+		return partial;
+	}
+
+	@Override
+	public void merge(IMergeableEvaluationConsumer partial) {
+		F1ByQueryType other = (F1ByQueryType) partial;
+		replayOutput(other);
+		for (String kind : other.results.keySet()) {
+			Map<QueryMode, Map<Integer, StatsAccumulator>> otherModes = other.results.get(kind);
+			for (QueryMode queryMode : otherModes.keySet()) {
+				Map<Integer, StatsAccumulator> otherNums = otherModes.get(queryMode);
+				for (int num : otherNums.keySet()) {
+					getData(kind, queryMode, num).merge(otherNums.get(num));
+				}
+			}
+		}
+	}
+
 	@Override
 	public void addResult(Usage start, Usage end, QueryMode queryMode, double f1) {
-		Logger.append(".");
+		append(".");
 		int numEnd = end.getReceiverCallsites().size();
 		int numAdd = QueryUtils.countAdditions(start, end);
 		int numStart = numEnd - numAdd;
@@ -60,10 +88,13 @@ public class F1ByQueryType extends AbstractEvaluationConsumer {
 	}
 
 	private void store(String kind, QueryMode queryMode, int num, double f1) {
-		Map<QueryMode, Map<Integer, BoxplotData>> modes = getOrCreate(results, kind, Maps.newLinkedHashMap());
-		Map<Integer, BoxplotData> nums = getOrCreate(modes, queryMode, Maps.newLinkedHashMap());
-		BoxplotData data = getOrCreate(nums, num, new BoxplotData());
-		data.add(f1);
+		getData(kind, queryMode, num).add(f1);
+	}
+
+	private StatsAccumulator getData(String kind, QueryMode queryMode, int num) {
+		Map<QueryMode, Map<Integer, StatsAccumulator>> modes = getOrCreate(results, kind, Maps.newLinkedHashMap());
+		Map<Integer, StatsAccumulator> nums = getOrCreate(modes, queryMode, Maps.newLinkedHashMap());
+		return getOrCreate(nums, num, new StatsAccumulator());
 	}
 
 	private <K, V> V getOrCreate(Map<K, V> map, K key, V defaultValue) {
@@ -80,17 +111,17 @@ public class F1ByQueryType extends AbstractEvaluationConsumer {
 		Logger.append("\n\nresults:");
 		for (String desc : results.keySet()) {
 			Logger.append("\n\n## %s ######################\n", desc);
-			Map<QueryMode, Map<Integer, BoxplotData>> modes = results.get(desc);
+			Map<QueryMode, Map<Integer, StatsAccumulator>> modes = results.get(desc);
 
 			for (QueryMode mode : modes.keySet()) {
 				Logger.append("\n    %s", mode);
 
-				Map<Integer, BoxplotData> nums = modes.get(mode);
+				Map<Integer, StatsAccumulator> nums = modes.get(mode);
 				TreeSet<Integer> sortedNums = new TreeSet<Integer>(nums.keySet());
 
 				int total = 0;
 				for (int num : sortedNums) {
-					BoxplotData data = nums.get(num);
+					StatsAccumulator data = nums.get(num);
 					Boxplot boxplot = data.getBoxplot();
 					total += boxplot.getNumValues();
 					Logger.append("\n        %3d: %s", num, boxplot);
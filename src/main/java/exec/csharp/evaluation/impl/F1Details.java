@@ -21,18 +21,19 @@ import com.google.common.collect.Maps;
 import com.google.inject.Inject;
 
 import cc.kave.commons.assertions.Asserts;
-import cc.kave.commons.evaluation.BoxplotData;
 import cc.kave.rsse.calls.usages.Usage;
 import exec.csharp.evaluation.AbstractEvaluationConsumer;
 import exec.csharp.evaluation.IEvaluation;
+import exec.csharp.evaluation.IMergeableEvaluationConsumer;
 import exec.csharp.queries.QueryMode;
 import exec.csharp.utils.QueryUtils;
+import exec.csharp.utils.StatsAccumulator;
 
-public class F1Details extends AbstractEvaluationConsumer {
+public class F1Details extends AbstractEvaluationConsumer implements IMergeableEvaluationConsumer {
 
 	private final IEvaluation eval;
 
-	private Map<QueryMode, Map<String, BoxplotData>> res;
+	private Map<QueryMode, Map<String, StatsAccumulator>> res;
 	private Map<String, Integer> counts;
 
 	@Inject
@@ -42,14 +43,39 @@ public class F1Details extends AbstractEvaluationConsumer {
 
 	@Override
 	public void run() {
+		init();
+		eval.run(this);
+	}
+
+	@Override
+	public void init() {
 		res = Maps.newLinkedHashMap();
 		counts = Maps.newLinkedHashMap();
-		eval.run(this);
+	}
+
+	@Override
+	public IMergeableEvaluationConsumer createPartial() {
+		F1Details partial = asPartial(new F1Details(eval));
+		partial.init();
+		return partial;
+	}
+
+	@Override
+	public void merge(IMergeableEvaluationConsumer partial) {
+		F1Details other = (F1Details) partial;
+		replayOutput(other);
+		for (QueryMode queryMode : other.res.keySet()) {
+			Map<String, StatsAccumulator> keys = other.res.get(queryMode);
+			for (String key : keys.keySet()) {
+				getOrCreate(queryMode, key).merge(keys.get(key));
+			}
+		}
+		mergeCountsInto(other.counts, counts);
 	}
 
 	@Override
 	public void addResult(Usage start, Usage end, QueryMode queryMode, double f1) {
-		System.out.printf(".");
+		print(".");
 		String key = getKey(start, end);
 		storeResult(queryMode, key, f1);
 		if (QueryMode.LINEAR == queryMode) {
@@ -76,19 +102,22 @@ public class F1Details extends AbstractEvaluationConsumer {
 	}
 
 	private void storeResult(QueryMode queryMode, String key, double f1) {
-		Map<String, BoxplotData> keys = res.get(queryMode);
+		getOrCreate(queryMode, key).add(f1);
+	}
+
+	private StatsAccumulator getOrCreate(QueryMode queryMode, String key) {
+		Map<String, StatsAccumulator> keys = res.get(queryMode);
 		if (keys == null) {
 			keys = Maps.newLinkedHashMap();
 			res.put(queryMode, keys);
 		}
 
-		BoxplotData f1s = keys.get(key);
+		StatsAccumulator f1s = keys.get(key);
 		if (f1s == null) {
-			f1s = new BoxplotData();
+			f1s = new StatsAccumulator();
 			keys.put(key, f1s);
 		}
-
-		f1s.add(f1);
+		return f1s;
 	}
 
 	private void count(String key) {
@@ -128,7 +157,7 @@ public class F1Details extends AbstractEvaluationConsumer {
 
 		for (QueryMode qm : QueryMode.values()) {
 			System.out.printf("## %s ############\n\n", qm);
-			Map<String, BoxplotData> keys = res.get(qm);
+			Map<String, StatsAccumulator> keys = res.get(qm);
 			if (keys == null) {
 				System.out.printf("no data\n\n");
 				continue;
@@ -144,7 +173,7 @@ public class F1Details extends AbstractEvaluationConsumer {
 				for (int second = 1; second <= 5; second++) {
 					String key = getStringKey(first, second);
 					if (keys.containsKey(key)) {
-						BoxplotData bp = keys.get(key);
+						StatsAccumulator bp = keys.get(key);
 						double f1 = bp.getBoxplot().getMean();
 						System.out.printf("\t%.4f", f1);
 					} else {
@@ -16,7 +16,9 @@
 package exec.csharp.queries;
 
 import java.util.List;
+import java.util.Set;
 
+import cc.kave.rsse.calls.usages.CallSite;
 import cc.kave.rsse.calls.usages.Query;
 import cc.kave.rsse.calls.usages.Usage;
 
@@ -24,4 +26,21 @@ public abstract class AbstractQueryBuilder implements IQueryBuilder<Usage, Query
 
 	@Override
 	public abstract List<Query> createQueries(Usage start, Usage end);
+
+	/**
+	 * Creates a lightweight query that shares type, contexts, and definition
+	 * site with the source usage and only adds its own selection of call sites.
+	 * In contrast to Query.createAsCopyFrom, the call sites of the source are
+	 * not copied just to be replaced afterwards. Queries are only read by the
+	 * recommender, so the shared parts must not be modified.
+	 */
+	protected static Query createQuery(Usage source, Set<CallSite> selection) {
+		Query q = new Query();
+		q.setType(source.getType());
+		q.setClassContext(source.getClassContext());
+		q.setMethodContext(source.getMethodContext());
+		q.setDefinition(source.getDefinitionSite());
+		q.setAllCallsites(selection);
+		return q;
+	}
 }
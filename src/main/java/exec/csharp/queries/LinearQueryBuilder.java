@@ -17,6 +17,7 @@ package exec.csharp.queries;
 
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
@@ -30,19 +31,16 @@ public class LinearQueryBuilder extends AbstractQueryBuilder {
 
 	@Override
 	public List<Query> createQueries(Usage start, Usage end) {
-		Query q = Query.createAsCopyFrom(end);
-		q.setAllCallsites(Sets.newLinkedHashSet());
-
 		int numAdditions = QueryUtils.countAdditions(start, end);
 		int numBefore = end.getReceiverCallsites().size() - numAdditions;
 
+		Set<CallSite> prefix = Sets.newLinkedHashSet();
 		Iterator<CallSite> it = end.getReceiverCallsites().iterator();
 		int i = 0;
 		while (i++ < numBefore && it.hasNext()) {
-			CallSite cs = it.next();
-			q.addCallSite(cs);
+			prefix.add(it.next());
 		}
 
-		return Lists.newArrayList(q);
+		return Lists.newArrayList(createQuery(end, prefix));
 	}
 }
\ No newline at end of file
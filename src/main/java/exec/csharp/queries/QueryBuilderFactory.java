@@ -51,4 +51,12 @@ public class QueryBuilderFactory {
 		}
 		throw new RuntimeException("unknown query mode: " + mode);
 	}
+
+	/**
+	 * @return all settings of the query builders that influence the created
+	 *         queries (only the random builder is configurable)
+	 */
+	public String getConfiguration() {
+		return "linear, " + random.getConfiguration() + ", real, realWithNoise";
+	}
 }
\ No newline at end of file
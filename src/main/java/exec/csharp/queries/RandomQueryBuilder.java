@@ -15,26 +15,39 @@
  */
 package exec.csharp.queries;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 import java.util.Set;
 
-import org.apache.commons.math.util.MathUtils;
-
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 
-import cc.kave.commons.utils.SublistSelector;
+import cc.kave.commons.model.naming.types.ITypeName;
 import cc.kave.rsse.calls.usages.CallSite;
 import cc.kave.rsse.calls.usages.Query;
 import cc.kave.rsse.calls.usages.Usage;
+import exec.csharp.utils.IntCombinationIterator;
 import exec.csharp.utils.QueryUtils;
+import exec.csharp.utils.SubsetSampler;
 
 public class RandomQueryBuilder extends AbstractQueryBuilder {
 
+	public static final long DEFAULT_SEED = 1234;
+
 	private int maxNumQueries;
+	private long seed;
 
 	public RandomQueryBuilder(int maxNumQueries) {
+		this(maxNumQueries, DEFAULT_SEED);
+	}
+
+	public RandomQueryBuilder(int maxNumQueries, long seed) {
 		this.maxNumQueries = maxNumQueries;
+		this.seed = seed;
 	}
 
 	@Override
@@ -44,57 +57,127 @@ public class RandomQueryBuilder extends AbstractQueryBuilder {
 		int numAdditions = QueryUtils.countAdditions(start, end);
 		int numBefore = numAfter - numAdditions;
 
-		// int maxNumPossible = getMaxNumPossible(numBefore, numAfter);
-		// if (maxNumPossible <= maxNumQueries) {
-		// return createAllPossibleQueries(end, numBefore);
-		// } else {
-		return createRandomQueries(end, numAdditions);
-		// }
+		if (countCombinations(numAfter, numBefore, maxNumQueries) <= maxNumQueries) {
+			return createAllPossibleQueries(end, numBefore);
+		} else {
+			return createRandomQueries(end, numAdditions);
+		}
+	}
 
+	public int getMaxNumQueries() {
+		return maxNumQueries;
 	}
 
-	public int getMaxNumPossible(int numBefore, int numAfter) {
-		int maxPossible = (int) MathUtils.binomialCoefficient(numAfter, numBefore);
-		return Math.min(maxNumQueries, maxPossible);
+	public long getSeed() {
+		return seed;
 	}
 
-	// private List<Query> createAllPossibleQueries(Usage end, int numBefore) {
-	// // TODO Auto-generated method stub
-	// return null;
-	// }
+	/**
+	 * @return all settings that influence the created queries
+	 */
+	public String getConfiguration() {
+		return String.format("random(max=%d, seed=%d)", maxNumQueries, seed);
+	}
 
-	private List<Query> createRandomQueries(Usage end, int numToRemove) {
-		Set<CallSite> allSites = end.getReceiverCallsites();
-		Set<Set<CallSite>> randomSelections = Sets.newLinkedHashSet();
+	public int getMaxNumPossible(int numBefore, int numAfter) {
+		return (int) Math.min(maxNumQueries, countCombinations(numAfter, numBefore, maxNumQueries));
+	}
 
-		int iterations = 0;
-		while (randomSelections.size() < maxNumQueries && iterations++ < 100) {
-			Set<CallSite> rndSelection = rndSelect(numToRemove, allSites);
-			randomSelections.add(rndSelection);
+	/**
+	 * binomial coefficient "n choose k", capped at limit+1 to avoid overflows
+	 * for large usages (the partial products are binomials themselves and thus
+	 * grow monotonically)
+	 */
+	private static long countCombinations(int n, int k, int limit) {
+		k = Math.min(k, n - k);
+		long num = 1;
+		for (int i = 1; i <= k; i++) {
+			num = num * (n - k + i) / i;
+			if (num > limit) {
+				return limit + 1L;
+			}
 		}
+		return num;
+	}
 
+	private List<Query> createAllPossibleQueries(Usage end, int numBefore) {
+		CallSite[] allSites = end.getReceiverCallsites().toArray(new CallSite[0]);
 		List<Query> queries = Lists.newLinkedList();
-		for (Set<CallSite> sites : randomSelections) {
-			Query q = Query.createAsCopyFrom(end);
-			q.setAllCallsites(sites);
-			queries.add(q);
+		IntCombinationIterator it = new IntCombinationIterator(allSites.length, numBefore);
+		while (it.next()) {
+			Set<CallSite> sites = Sets.newLinkedHashSet();
+			for (int idx : it.getSelection()) {
+				sites.add(allSites[idx]);
+			}
+			queries.add(createQuery(end, sites));
 		}
-
 		return queries;
 	}
 
-	private Set<CallSite> rndSelect(int numToRemove, Set<CallSite> allSites) {
+	/**
+	 * Sorts the sites in place by their keys, which only consist of names, so
+	 * the order is the same in every JVM. Each key is only computed once.
+	 * 
+	 * @return the keys of the sorted sites
+	 */
+	static String[] sortByKey(CallSite[] sites) {
+		String[] keys = new String[sites.length];
+		Integer[] order = new Integer[sites.length];
+		for (int i = 0; i < sites.length; i++) {
+			keys[i] = QueryUtils.toKey(sites[i]);
+			order[i] = i;
+		}
+		Arrays.sort(order, (a, b) -> keys[a].compareTo(keys[b]));
 
-		if (numToRemove == 0) {
-			return allSites;
+		CallSite[] unsorted = sites.clone();
+		String[] sortedKeys = new String[keys.length];
+		for (int i = 0; i < order.length; i++) {
+			sites[i] = unsorted[order[i]];
+			sortedKeys[i] = keys[order[i]];
 		}
+		return sortedKeys;
+	}
 
-		Set<CallSite> shuffled = SublistSelector.shuffle(allSites);
-		for (int i = 0; i < numToRemove; i++) {
-			CallSite cs = shuffled.iterator().next();
-			shuffled.remove(cs);
+	/**
+	 * Combines the seed with a fingerprint of the type and the sorted keys of
+	 * the call sites. Only names are hashed, not hashCode(), which is
+	 * identity-based for the site kinds and thus differs between JVMs.
+	 */
+	static long createSeed(long seed, ITypeName type, String[] sortedKeys) {
+		Hasher h = Hashing.murmur3_128().newHasher();
+		h.putLong(seed).putString(QueryUtils.toKey(type), StandardCharsets.UTF_8);
+		for (String key : sortedKeys) {
+			h.putString(key, StandardCharsets.UTF_8);
 		}
+		return h.hash().asLong();
+	}
 
-		return shuffled;
+	private List<Query> createRandomQueries(Usage end, int numToRemove) {
+		CallSite[] allSites = end.getReceiverCallsites().toArray(new CallSite[0]);
+		// the selected indices must refer to the same sites in every JVM
+		String[] keys = sortByKey(allSites);
+		int numToKeep = allSites.length - numToRemove;
+		int[] selection = new int[numToKeep];
+		// seeded per usage, so results do not depend on the order in which
+		// (possibly concurrent) evaluations call the builder
+		Random rnd = new Random(createSeed(seed, end.getType(), keys));
+
+		Set<Set<CallSite>> randomSelections = Sets.newLinkedHashSet();
+		int iterations = 0;
+		while (randomSelections.size() < maxNumQueries && iterations++ < 100) {
+			SubsetSampler.select(rnd, allSites.length, numToKeep, selection);
+			Set<CallSite> rndSelection = Sets.newLinkedHashSet();
+			for (int idx : selection) {
+				rndSelection.add(allSites[idx]);
+			}
+			randomSelections.add(rndSelection);
+		}
+
+		List<Query> queries = Lists.newLinkedList();
+		for (Set<CallSite> sites : randomSelections) {
+			queries.add(createQuery(end, sites));
+		}
+
+		return queries;
 	}
 }
\ No newline at end of file
@@ -15,10 +15,11 @@
  */
 package exec.csharp.queries;
 
-import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 
 import cc.kave.rsse.calls.usages.CallSite;
 import cc.kave.rsse.calls.usages.Query;
@@ -27,14 +28,13 @@ import cc.kave.rsse.calls.usages.Usage;
 public class RealQueryBuilder extends AbstractQueryBuilder {
 	@Override
 	public List<Query> createQueries(Usage start, Usage end) {
-		Query q = Query.createAsCopyFrom(end);
-		Iterator<CallSite> it = q.getAllCallsites().iterator();
-		while (it.hasNext()) {
-			CallSite cs = it.next();
-			if (!start.getAllCallsites().contains(cs)) {
-				it.remove();
+		Set<CallSite> startCalls = start.getAllCallsites();
+		Set<CallSite> selection = Sets.newLinkedHashSet();
+		for (CallSite cs : end.getAllCallsites()) {
+			if (startCalls.contains(cs)) {
+				selection.add(cs);
 			}
 		}
-		return Lists.newArrayList(q);
+		return Lists.newArrayList(createQuery(end, selection));
 	}
 }
\ No newline at end of file
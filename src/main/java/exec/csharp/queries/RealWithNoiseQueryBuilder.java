@@ -15,6 +15,7 @@
  */
 package exec.csharp.queries;
 
+import java.util.Collections;
 import java.util.List;
 
 import com.google.common.collect.Lists;
@@ -25,7 +26,8 @@ import cc.kave.rsse.calls.usages.Usage;
 public class RealWithNoiseQueryBuilder extends AbstractQueryBuilder {
 	@Override
 	public List<Query> createQueries(Usage start, Usage end) {
-		Query q = Query.createAsCopyFrom(start);
+		// the query is never modified, so the call sites of start can be shared
+		Query q = createQuery(start, Collections.unmodifiableSet(start.getAllCallsites()));
 		return Lists.newArrayList(q);
 	}
 }
\ No newline at end of file
@@ -28,7 +28,18 @@ import cc.kave.commons.model.naming.types.ITypeName;
 import cc.kave.commons.utils.io.Directory;
 import cc.kave.commons.utils.io.Logger;
 import cc.kave.commons.utils.io.NestedZipFolders;
+import cc.kave.rsse.calls.options.MiningOptions;
+import cc.kave.rsse.calls.options.QueryOptions;
+import exec.csharp.evaluation.CompositeEvaluationConsumer;
+import exec.csharp.evaluation.Evaluation;
+import exec.csharp.evaluation.impl.AnalysisOfNoise;
+import exec.csharp.evaluation.impl.F1ByCategory;
+import exec.csharp.evaluation.impl.F1ByQueryMode;
+import exec.csharp.evaluation.impl.F1ByQueryType;
+import exec.csharp.evaluation.impl.F1Details;
 import exec.csharp.queries.QueryBuilderFactory;
+import exec.csharp.utils.ColumnarConverter;
+import exec.csharp.utils.EvaluationCheckpoints;
 import exec.csharp.utils.ModelHelper;
 import exec.csharp.utils.StorageCase;
 import exec.csharp.utils.StorageHelper;
@@ -39,6 +50,7 @@ import exec.validate_evaluation.categorized.MicroCommitIoExtension;
 import exec.validate_evaluation.categorized.NoiseCategorizedEvaluation;
 import exec.validate_evaluation.categorized.ScenarioCategorizedEvaluation;
 import exec.validate_evaluation.greedy_and_endgoal.GreedyAndEndGoalEval;
+import exec.validate_evaluation.io.ParallelArchiveReader;
 import exec.validate_evaluation.microcommits.FinalStateMicroCommitGenerationRunner;
 import exec.validate_evaluation.microcommits.MicroCommitGenerationLogger;
 import exec.validate_evaluation.microcommits.MicroCommitIo;
@@ -61,6 +73,10 @@ public class run {
 	private static String dirES = dirRoot + "EditStreaks";
 	private static String dirQH = dirRoot + "QueryHistories";
 	private static String dirMC = dirRoot + "MicroCommits";
+	// decodes the entries of large user zips on all cores
+	private static ParallelArchiveReader parallelReader = ParallelArchiveReader.forAllCores(true);
+	// enable for long-running evaluations that should survive restarts
+	private static boolean useCheckpoints = false;
 
 	private static void init() {
 		storageHelper = load(StorageHelper.class);
@@ -82,6 +98,9 @@ public class run {
 		// storageHelper.setModifier("inlined");
 		// runBatchPBNSmileMiner();
 		// storageHelper.clearModifier();
+		// runManifestCreation(); // whenever Usages or MicroCommits changed
+		// runColumnarConversion(); // optional, faster loading
+		// runUsagePacking(); // optional, maps all usages from a single file
 
 		/* evaluations */
 		// load(UsageToMicroCommitRatioCalculator.class).run();
@@ -96,6 +115,7 @@ public class run {
 		// load(F1ByCategory.class).run();
 		// load(F1Details.class).run();
 		// load(AnalysisOfNoise.class).run();
+		// runAllF1Evaluations(); // all of the above in a single pass
 
 		/* new evals */
 		// load(BasicExcelEvaluation.class).run();
@@ -105,10 +125,19 @@ public class run {
 		// runGreedyVsGoalEval();
 	}
 
+	private static void runAllF1Evaluations() {
+		Evaluation eval = load(Evaluation.class);
+		eval.setCheckpoints(checkpoints("Evaluation"));
+		new CompositeEvaluationConsumer(eval, load(F1ByQueryMode.class),
+				load(F1ByQueryType.class), load(F1ByCategory.class), load(F1Details.class),
+				load(AnalysisOfNoise.class)).run();
+	}
+
 	private static void runGreedyVsGoalEval() {
 		NestedZipFolders<ITypeName> usages = storageHelper.getNestedZipFolder(StorageCase.USAGES);
 		ModelHelper mh = load(ModelHelper.class);
 		QueryHistoryIo qhIo = new QueryHistoryIo(dirQH);
+		qhIo.setParallelReader(parallelReader);
 		new GreedyAndEndGoalEval(usages, mh, qhIo).run();
 	}
 
@@ -116,13 +145,26 @@ public class run {
 		NestedZipFolders<ITypeName> usages = storageHelper.getNestedZipFolder(StorageCase.USAGES);
 		ModelHelper mh = load(ModelHelper.class);
 		MicroCommitIo mcIo = new MicroCommitIo(dirMC);
+		mcIo.setParallelReader(parallelReader);
 		MicroCommitIoExtension mcIoExt = new MicroCommitIoExtension(mcIo);
 		QueryBuilderFactory qbf = load(QueryBuilderFactory.class);
-		new NoiseCategorizedEvaluation(usages, mh, mcIoExt, qbf).run();
-		new ScenarioCategorizedEvaluation(usages, mh, mcIoExt, qbf).run();
+		NoiseCategorizedEvaluation noiseEval = new NoiseCategorizedEvaluation(usages, mh, mcIoExt, qbf);
+		noiseEval.setCheckpoints(checkpoints("NoiseCategorizedEvaluation"));
+		noiseEval.run();
+		ScenarioCategorizedEvaluation scenarioEval = new ScenarioCategorizedEvaluation(usages, mh, mcIoExt, qbf);
+		scenarioEval.setCheckpoints(checkpoints("ScenarioCategorizedEvaluation"));
+		scenarioEval.run();
 		// new DebuggingEvaluation(usages, mh, mcIoExt, qbf).run();
 	}
 
+	private static EvaluationCheckpoints checkpoints(String evalName) {
+		if (!useCheckpoints) {
+			return null;
+		}
+		return EvaluationCheckpoints.create(storageHelper, evalName, load(MiningOptions.class),
+				load(QueryOptions.class), load(QueryBuilderFactory.class));
+	}
+
 	private static void runStats() throws IOException {
 		MicroCommitIo mcIo = new MicroCommitIo(dirMC);
 		QueryHistoryIo qhIo = new QueryHistoryIo(dirQH);
@@ -147,6 +189,8 @@ public class run {
 		EditStreakGenerationIo esIo = new EditStreakGenerationIo(dirCE, dirES);
 		QueryHistoryIo qhIo = new QueryHistoryIo(dirQH);
 		MicroCommitIo mcIo = new MicroCommitIo(dirMC);
+		esIo.setParallelReader(parallelReader);
+		qhIo.setParallelReader(parallelReader);
 
 		EditStreakGenerationLogger esLog = new EditStreakGenerationLogger();
 		QueryHistoryGenerationLogger qhLog = new QueryHistoryGenerationLogger();
@@ -182,6 +226,21 @@ public class run {
 		}
 	}
 
+	private static void runManifestCreation() {
+		storageHelper.writeManifest(StorageCase.USAGES);
+		storageHelper.writeManifest(StorageCase.MICRO_COMMITS);
+	}
+
+	private static void runColumnarConversion() {
+		ColumnarConverter.convertUsages(storageHelper.getPath(StorageCase.USAGES));
+		ColumnarConverter.convertMicroCommits(storageHelper.getPath(StorageCase.MICRO_COMMITS));
+		ColumnarConverter.convertQueryHistories(dirQH);
+	}
+
+	private static void runUsagePacking() {
+		storageHelper.writeMappedUsages();
+	}
+
 	private static void runBatchPBNSmileMiner() {
 		NestedZipFolders<ITypeName> zipsUsages = storageHelper.getNestedZipFolder(StorageCase.USAGES);
 		Directory dirNetworks = storageHelper.getDirectory(StorageCase.NETWORKS);
@@ -0,0 +1,569 @@
+/*
+ * Copyright 2014 Technische Universität Darmstadt
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package exec.csharp.utils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import cc.kave.commons.model.naming.IName;
+import cc.kave.commons.model.naming.Names;
+import cc.kave.commons.model.naming.codeelements.IFieldName;
+import cc.kave.commons.model.naming.codeelements.IMethodName;
+import cc.kave.commons.model.naming.types.ITypeName;
+import cc.kave.rsse.calls.usages.CallSite;
+import cc.kave.rsse.calls.usages.CallSiteKind;
+import cc.kave.rsse.calls.usages.DefinitionSite;
+import cc.kave.rsse.calls.usages.DefinitionSiteKind;
+import cc.kave.rsse.calls.usages.NoUsage;
+import cc.kave.rsse.calls.usages.Query;
+import cc.kave.rsse.calls.usages.Usage;
+import exec.validate_evaluation.microcommits.MicroCommit;
+
+/**
+ * Binary, column-oriented alternative to the zipped JSON archives for usages,
+ * micro commits and usage histories. All names are stored once in a string
+ * dictionary and every field of the usages is stored as a separate column of
+ * (variable-length encoded) ints, so decoding does not need any reflection and
+ * creates every name only once per file.
+ * 
+ * A converted archive is stored next to the original zip (zip name +
+ * {@link #FILE_SUFFIX}). It records the size and modification date of the zip,
+ * readers prefer it as long as it is {@link #isUpToDate(File) up to date}.
+ */
+public class ColumnarCodec {
+
+	public static final String FILE_SUFFIX = ".col";
+
+	private static final int MAGIC = 0x4B434F4C; // "KCOL"
+	private static final int VERSION = 3;
+
+	public enum Kind {
+		USAGES, MICRO_COMMITS, USAGE_LISTS
+	}
+
+	private ColumnarCodec() {
+	}
+
+	public static File getFile(String root, String zip) {
+		return new File(root, zip + FILE_SUFFIX);
+	}
+
+	/**
+	 * @return true, if the file exists and was converted from the current
+	 *         version of its zip
+	 */
+	public static boolean isUpToDate(File file) {
+		if (!file.exists()) {
+			return false;
+		}
+		File zip = getSource(file);
+		try (DataInputStream in = open(file)) {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+				return false;
+			}
+			Header h = readHeader(in);
+			return zip.exists() && h.sourceLength == zip.length() && h.sourceModified == zip.lastModified();
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	private static File getSource(File file) {
+		String path = file.getPath();
+		return new File(path.substring(0, path.length() - FILE_SUFFIX.length()));
+	}
+
+	public static void writeUsages(List<? extends Usage> usages, File file) {
+		write(Kind.USAGES, null, usages, file);
+	}
+
+	public static void writeMicroCommits(List<MicroCommit> commits, File file) {
+		List<Usage> usages = Lists.newArrayListWithCapacity(2 * commits.size());
+		for (MicroCommit mc : commits) {
+			usages.add(mc.getStart());
+			usages.add(mc.getEnd());
+		}
+		write(Kind.MICRO_COMMITS, null, usages, file);
+	}
+
+	public static void writeUsageLists(Collection<List<Usage>> lists, File file) {
+		int[] lengths = new int[lists.size()];
+		List<Usage> usages = Lists.newArrayList();
+		int i = 0;
+		for (List<Usage> list : lists) {
+			lengths[i++] = list.size();
+			usages.addAll(list);
+		}
+		write(Kind.USAGE_LISTS, lengths, usages, file);
+	}
+
+	public static List<Usage> readUsages(File file) {
+		return Lists.newArrayList(iterateUsages(file));
+	}
+
+	/**
+	 * Only the int columns are read eagerly, every usage is created when the
+	 * iterator reaches it. Each call of iterator() reads the file again.
+	 */
+	public static Iterable<Usage> iterateUsages(File file) {
+		return () -> read(file, Kind.USAGES).iterator();
+	}
+
+	public static List<MicroCommit> readMicroCommits(File file) {
+		Columns c = read(file, Kind.MICRO_COMMITS);
+		List<MicroCommit> commits = Lists.newArrayListWithCapacity(c.size() / 2);
+		Iterator<Usage> it = c.iterator();
+		while (it.hasNext()) {
+			commits.add(MicroCommit.create(it.next(), it.next()));
+		}
+		return commits;
+	}
+
+	public static List<List<Usage>> readUsageLists(File file) {
+		Columns c = read(file, Kind.USAGE_LISTS);
+		List<List<Usage>> lists = Lists.newArrayListWithCapacity(c.lengths.length);
+		Iterator<Usage> it = c.iterator();
+		for (int length : c.lengths) {
+			List<Usage> list = Lists.newArrayListWithCapacity(length);
+			for (int i = 0; i < length; i++) {
+				list.add(it.next());
+			}
+			lists.add(list);
+		}
+		return lists;
+	}
+
+	/**
+	 * @return the columnar encoding of the usages as a byte array (e.g., to be
+	 *         embedded in a larger file)
+	 */
+	public static byte[] encodeUsages(List<? extends Usage> usages) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			write(Kind.USAGES, null, usages, null, out);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * lazy counterpart of {@link #encodeUsages(List)}, the buffer itself is not
+	 * consumed, so the result can be iterated more than once
+	 */
+	public static Iterable<Usage> iterateUsages(ByteBuffer buffer) {
+		return () -> read(buffer.duplicate()).iterator();
+	}
+
+	public static Kind readKind(File file) {
+		try (DataInputStream in = open(file)) {
+			return readHeader(in, file.toString()).kind;
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	// ---- writing ----
+
+	private static void write(Kind kind, int[] lengths, List<? extends Usage> usages, File file) {
+		file.getParentFile().mkdirs();
+		File tmp = new File(file.getPath() + ".tmp");
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+			write(kind, lengths, usages, getSource(file), out);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+		file.delete();
+		if (!tmp.renameTo(file)) {
+			throw new RuntimeException("cannot write " + file);
+		}
+	}
+
+	private static void write(Kind kind, int[] lengths, List<? extends Usage> usages, File source,
+			DataOutputStream out) throws IOException {
+		StringDictionary dict = new StringDictionary();
+		int n = usages.size();
+		boolean[] isNoUsage = new boolean[n];
+		int[] types = new int[n];
+		int[] classCtxs = new int[n];
+		int[] methodCtxs = new int[n];
+		int[] defKinds = new int[n];
+		int[] defMethods = new int[n];
+		int[] defFields = new int[n];
+		int[] defArgIndices = new int[n];
+		int[] numCallSites = new int[n];
+		List<CallSite> callSites = Lists.newArrayList();
+
+		for (int i = 0; i < n; i++) {
+			Usage u = usages.get(i);
+			if (u instanceof NoUsage) {
+				isNoUsage[i] = true;
+				types[i] = classCtxs[i] = methodCtxs[i] = defKinds[i] = defMethods[i] = defFields[i] = -1;
+				continue;
+			}
+			types[i] = dict.getId(u.getType());
+			classCtxs[i] = dict.getId(u.getClassContext());
+			methodCtxs[i] = dict.getId(u.getMethodContext());
+			DefinitionSite def = u.getDefinitionSite();
+			defKinds[i] = def == null || def.getKind() == null ? -1 : def.getKind().ordinal();
+			defMethods[i] = def == null ? -1 : dict.getId(def.getMethod());
+			defFields[i] = def == null ? -1 : dict.getId(def.getField());
+			defArgIndices[i] = def == null ? 0 : def.getArgIndex();
+			numCallSites[i] = u.getAllCallsites().size();
+			callSites.addAll(u.getAllCallsites());
+		}
+
+		int c = callSites.size();
+		int[] csKinds = new int[c];
+		int[] csMethods = new int[c];
+		int[] csArgIndices = new int[c];
+		for (int i = 0; i < c; i++) {
+			CallSite cs = callSites.get(i);
+			csKinds[i] = cs.getKind() == null ? -1 : cs.getKind().ordinal();
+			csMethods[i] = dict.getId(cs.getMethod());
+			csArgIndices[i] = cs.getArgIndex();
+		}
+
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.writeByte(kind.ordinal());
+		// an embedded encoding has no zip of its own
+		out.writeLong(source == null ? -1 : source.length());
+		out.writeLong(source == null ? -1 : source.lastModified());
+
+		writeVarInt(out, dict.strings.size());
+		for (String s : dict.strings) {
+			writeString(out, s);
+		}
+
+		writeColumn(out, lengths == null ? new int[0] : lengths);
+		writeVarInt(out, n);
+		for (boolean b : isNoUsage) {
+			out.writeBoolean(b);
+		}
+		writeColumn(out, types);
+		writeColumn(out, classCtxs);
+		writeColumn(out, methodCtxs);
+		writeColumn(out, defKinds);
+		writeColumn(out, defMethods);
+		writeColumn(out, defFields);
+		writeColumn(out, defArgIndices);
+		writeColumn(out, numCallSites);
+
+		writeVarInt(out, c);
+		writeColumn(out, csKinds);
+		writeColumn(out, csMethods);
+		writeColumn(out, csArgIndices);
+	}
+
+	private static void writeColumn(DataOutputStream out, int[] column) throws IOException {
+		writeVarInt(out, column.length);
+		for (int val : column) {
+			writeVarInt(out, val);
+		}
+	}
+
+	/** zig-zag encoded varint, so small negative numbers (-1) stay small */
+	private static void writeVarInt(DataOutputStream out, int val) throws IOException {
+		int v = (val << 1) ^ (val >> 31);
+		while ((v & ~0x7F) != 0) {
+			out.writeByte((v & 0x7F) | 0x80);
+			v >>>= 7;
+		}
+		out.writeByte(v);
+	}
+
+	/** writeUTF is limited to 64KB, generic identifiers can be longer */
+	private static void writeString(DataOutputStream out, String s) throws IOException {
+		byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+		writeVarInt(out, bytes.length);
+		out.write(bytes);
+	}
+
+	// ---- reading ----
+
+	private static Columns read(File file, Kind expected) {
+		try (DataInputStream in = open(file)) {
+			return read(in, expected, file.toString());
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private static Columns read(ByteBuffer buffer) {
+		try (DataInputStream in = new DataInputStream(new ByteBufferInputStream(buffer))) {
+			return read(in, Kind.USAGES, "buffer");
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private static Columns read(DataInputStream in, Kind expected, String source) throws IOException {
+		Kind kind = readHeader(in, source).kind;
+		if (kind != expected) {
+			throw new RuntimeException(String.format("%s contains %s, not %s", source, kind, expected));
+		}
+
+		String[] strings = new String[readVarInt(in)];
+		for (int i = 0; i < strings.length; i++) {
+			strings[i] = readString(in);
+		}
+
+		Columns c = new Columns(strings);
+		c.lengths = readColumn(in);
+		int n = readVarInt(in);
+		c.isNoUsage = new boolean[n];
+		for (int i = 0; i < n; i++) {
+			c.isNoUsage[i] = in.readBoolean();
+		}
+		c.types = readColumn(in);
+		c.classCtxs = readColumn(in);
+		c.methodCtxs = readColumn(in);
+		c.defKinds = readColumn(in);
+		c.defMethods = readColumn(in);
+		c.defFields = readColumn(in);
+		c.defArgIndices = readColumn(in);
+		c.numCallSites = readColumn(in);
+
+		readVarInt(in);
+		c.csKinds = readColumn(in);
+		c.csMethods = readColumn(in);
+		c.csArgIndices = readColumn(in);
+		return c;
+	}
+
+	private static DataInputStream open(File file) throws IOException {
+		return new DataInputStream(new BufferedInputStream(new FileInputStream(file), 64 * 1024));
+	}
+
+	private static Header readHeader(DataInputStream in, String source) throws IOException {
+		if (in.readInt() != MAGIC) {
+			throw new RuntimeException("not a columnar file: " + source);
+		}
+		int version = in.readInt();
+		if (version != VERSION) {
+			throw new RuntimeException(String.format("unsupported version %d: %s", version, source));
+		}
+		return readHeader(in);
+	}
+
+	private static Header readHeader(DataInputStream in) throws IOException {
+		Header h = new Header();
+		h.kind = Kind.values()[in.readByte()];
+		h.sourceLength = in.readLong();
+		h.sourceModified = in.readLong();
+		return h;
+	}
+
+	private static int[] readColumn(DataInputStream in) throws IOException {
+		int[] column = new int[readVarInt(in)];
+		for (int i = 0; i < column.length; i++) {
+			column[i] = readVarInt(in);
+		}
+		return column;
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		byte[] bytes = new byte[readVarInt(in)];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static int readVarInt(DataInputStream in) throws IOException {
+		int v = 0;
+		int shift = 0;
+		int b;
+		do {
+			b = in.readByte();
+			v |= (b & 0x7F) << shift;
+			shift += 7;
+		} while ((b & 0x80) != 0);
+		return (v >>> 1) ^ -(v & 1);
+	}
+
+	private static class ByteBufferInputStream extends InputStream {
+		private final ByteBuffer buffer;
+
+		private ByteBufferInputStream(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		public int read() {
+			return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) {
+			if (!buffer.hasRemaining()) {
+				return -1;
+			}
+			int num = Math.min(len, buffer.remaining());
+			buffer.get(b, off, num);
+			return num;
+		}
+	}
+
+	private static class Header {
+		private Kind kind;
+		private long sourceLength;
+		private long sourceModified;
+	}
+
+	private static class Columns {
+		private static final DefinitionSiteKind[] DEF_KINDS = DefinitionSiteKind.values();
+		private static final CallSiteKind[] CS_KINDS = CallSiteKind.values();
+
+		private final NameColumn<ITypeName> typeNames;
+		private final NameColumn<IMethodName> methodNames;
+		private final NameColumn<IFieldName> fieldNames;
+
+		private int[] lengths;
+		private boolean[] isNoUsage;
+		private int[] types;
+		private int[] classCtxs;
+		private int[] methodCtxs;
+		private int[] defKinds;
+		private int[] defMethods;
+		private int[] defFields;
+		private int[] defArgIndices;
+		private int[] numCallSites;
+		private int[] csKinds;
+		private int[] csMethods;
+		private int[] csArgIndices;
+
+		private Columns(String[] strings) {
+			typeNames = new NameColumn<>(strings, Names::newType);
+			methodNames = new NameColumn<>(strings, Names::newMethod);
+			fieldNames = new NameColumn<>(strings, Names::newField);
+		}
+
+		private int size() {
+			return isNoUsage.length;
+		}
+
+		private Iterator<Usage> iterator() {
+			return new Iterator<Usage>() {
+				private int i = 0;
+				private int cs = 0;
+
+				@Override
+				public boolean hasNext() {
+					return i < size();
+				}
+
+				@Override
+				public Usage next() {
+					if (!hasNext()) {
+						throw new NoSuchElementException();
+					}
+					Usage u = decode(i, cs);
+					cs += numCallSites[i];
+					i++;
+					return u;
+				}
+			};
+		}
+
+		private Usage decode(int i, int firstCallSite) {
+			if (isNoUsage[i]) {
+				return new NoUsage();
+			}
+			Query q = new Query();
+			q.setType(typeNames.get(types[i]));
+			q.setClassContext(typeNames.get(classCtxs[i]));
+			q.setMethodContext(methodNames.get(methodCtxs[i]));
+			if (defKinds[i] != -1 || defMethods[i] != -1 || defFields[i] != -1) {
+				DefinitionSite def = new DefinitionSite();
+				def.setKind(defKinds[i] == -1 ? null : DEF_KINDS[defKinds[i]]);
+				def.setMethod(methodNames.get(defMethods[i]));
+				def.setField(fieldNames.get(defFields[i]));
+				def.setArgIndex(defArgIndices[i]);
+				q.setDefinition(def);
+			}
+			for (int cs = firstCallSite; cs < firstCallSite + numCallSites[i]; cs++) {
+				CallSite site = new CallSite();
+				site.setKind(csKinds[cs] == -1 ? null : CS_KINDS[csKinds[cs]]);
+				site.setMethod(methodNames.get(csMethods[cs]));
+				site.setArgIndex(csArgIndices[cs]);
+				q.addCallSite(site);
+			}
+			return q;
+		}
+	}
+
+	private static class StringDictionary {
+		private final Map<String, Integer> ids = Maps.newHashMap();
+		private final List<String> strings = Lists.newArrayList();
+
+		private int getId(IName name) {
+			if (name == null) {
+				return -1;
+			}
+			String id = name.getIdentifier();
+			Integer i = ids.get(id);
+			if (i == null) {
+				i = strings.size();
+				ids.put(id, i);
+				strings.add(id);
+			}
+			return i;
+		}
+	}
+
+	/** creates every name of one kind only once per file */
+	private static class NameColumn<T> {
+		private final String[] strings;
+		private final Function<String, T> factory;
+		private final Object[] names;
+
+		private NameColumn(String[] strings, Function<String, T> factory) {
+			this.strings = strings;
+			this.factory = factory;
+			names = new Object[strings.length];
+		}
+
+		@SuppressWarnings("unchecked")
+		private T get(int id) {
+			if (id == -1) {
+				return null;
+			}
+			if (names[id] == null) {
+				names[id] = factory.apply(strings[id]);
+			}
+			return (T) names[id];
+		}
+	}
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2014 Technische Universität Darmstadt
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package exec.csharp.utils;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Set;
+
+import com.google.common.collect.Lists;
+import com.google.gson.reflect.TypeToken;
+
+import cc.kave.commons.utils.io.Directory;
+import cc.kave.commons.utils.io.IReadingArchive;
+import cc.kave.commons.utils.io.Logger;
+import cc.kave.rsse.calls.usages.Usage;
+import exec.validate_evaluation.microcommits.MicroCommit;
+
+/**
+ * Creates a {@link ColumnarCodec} copy next to every zip of a store. The zips
+ * are left untouched, so the conversion can be repeated at any time.
+ */
+public class ColumnarConverter {
+
+	private static final Type USAGE_LIST = new TypeToken<List<Usage>>() {
+	}.getType();
+
+	public static void convertUsages(String root) {
+		for (String zip : findZips(root)) {
+			ColumnarCodec.writeUsages(readAll(root, zip, Usage.class), ColumnarCodec.getFile(root, zip));
+		}
+	}
+
+	public static void convertMicroCommits(String root) {
+		for (String zip : findZips(root)) {
+			ColumnarCodec.writeMicroCommits(readAll(root, zip, MicroCommit.class), ColumnarCodec.getFile(root, zip));
+		}
+	}
+
+	public static void convertQueryHistories(String root) {
+		for (String zip : findZips(root)) {
+			ColumnarCodec.writeUsageLists(readAll(root, zip, USAGE_LIST), ColumnarCodec.getFile(root, zip));
+		}
+	}
+
+	private static Set<String> findZips(String root) {
+		Set<String> zips = new Directory(root).findFiles(f -> f.endsWith(".zip"));
+		Logger.log("converting %d zips in %s", zips.size(), root);
+		return zips;
+	}
+
+	private static <T> List<T> readAll(String root, String zip, Type type) {
+		List<T> entries = Lists.newArrayList();
+		try (IReadingArchive ra = new Directory(root).getReadingArchive(zip)) {
+			while (ra.hasNext()) {
+				entries.add(ra.getNext(type));
+			}
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+		return entries;
+	}
+}
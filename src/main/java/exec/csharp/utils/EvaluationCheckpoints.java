@@ -0,0 +1,143 @@
+/*
+ * Copyright 2014 Technische Universität Darmstadt
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package exec.csharp.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+
+import com.google.common.hash.Hashing;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+
+import cc.kave.commons.model.naming.types.ITypeName;
+import cc.kave.rsse.calls.options.MiningOptions;
+import cc.kave.rsse.calls.options.QueryOptions;
+import exec.csharp.queries.QueryBuilderFactory;
+
+/**
+ * Stores the F1 values of every finished type in the order in which they have
+ * been calculated. A restarted evaluation replays them instead of training and
+ * querying the model again. Checkpoints are only reused for the same
+ * configuration (e.g., mining and query options) and the same data.
+ * Checkpointing is opt-in and should only be enabled for long-running runs.
+ */
+public class EvaluationCheckpoints {
+
+	private static final Type F1_LIST = new TypeToken<List<Double>>() {
+	}.getType();
+
+	private final File dir;
+	private final String config;
+	private final Gson gson = new GsonBuilder().serializeSpecialFloatingPointValues().create();
+
+	private boolean isMergeOnly = false;
+
+	public EvaluationCheckpoints(String dir, String config) {
+		this.dir = new File(dir);
+		this.config = config;
+	}
+
+	/**
+	 * the checkpoints depend on the options, the query builders, and the
+	 * current contents of the Usages and MicroCommits stores, so any change
+	 * invalidates them
+	 */
+	public static EvaluationCheckpoints create(StorageHelper storageHelper, String evalName, MiningOptions mOpts,
+			QueryOptions qOpts, QueryBuilderFactory queryBuilders) {
+		String dir = storageHelper.getPath(StorageCase.CHECKPOINTS) + evalName;
+		StringBuilder config = new StringBuilder();
+		config.append(mOpts).append('\n');
+		config.append(qOpts).append('\n');
+		config.append(queryBuilders.getConfiguration()).append('\n');
+		config.append(storageHelper.getFingerprint(StorageCase.USAGES)).append('\n');
+		config.append(storageHelper.getFingerprint(StorageCase.MICRO_COMMITS));
+		return new EvaluationCheckpoints(dir, config.toString());
+	}
+
+	/**
+	 * when merging the results of sharded runs, a missing checkpoint is an error
+	 * and is not silently recalculated
+	 */
+	public void setMergeOnly(boolean isMergeOnly) {
+		this.isMergeOnly = isMergeOnly;
+	}
+
+	public List<Double> read(ITypeName type) {
+		File f = file(type);
+		if (!f.exists()) {
+			if (isMergeOnly) {
+				throw new RuntimeException(String.format("no checkpoint found for %s, did all shards finish?", type));
+			}
+			return null;
+		}
+		try {
+			return gson.fromJson(FileUtils.readFileToString(f, StandardCharsets.UTF_8), F1_LIST);
+		} catch (IOException | JsonParseException e) {
+			// broken checkpoints are simply recalculated
+			f.delete();
+			return null;
+		}
+	}
+
+	public synchronized void store(ITypeName type, List<Double> f1s) {
+		dir.mkdirs();
+		File f = file(type);
+		File tmp = new File(f.getPath() + ".tmp");
+		try {
+			FileUtils.writeStringToFile(tmp, gson.toJson(f1s, F1_LIST), StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+		if (!tmp.renameTo(f)) {
+			tmp.delete();
+		}
+	}
+
+	/**
+	 * @return the next stored value, fails if the checkpoint holds fewer values
+	 *         than the evaluation consumes
+	 */
+	public static double nextReplayed(Iterator<Double> replay, ITypeName type) {
+		if (!replay.hasNext()) {
+			throw new RuntimeException(String.format(
+					"checkpoint of %s holds fewer results than the micro commits require, remove it", type));
+		}
+		return replay.next();
+	}
+
+	/**
+	 * fails if the evaluation did not consume all stored values of a type
+	 */
+	public static void assertReplayFinished(Iterator<Double> replay, ITypeName type) {
+		if (replay.hasNext()) {
+			throw new RuntimeException(String.format(
+					"checkpoint of %s holds more results than the micro commits require, remove it", type));
+		}
+	}
+
+	private File file(ITypeName type) {
+		String key = Hashing.sha1().hashString(config + "\n" + type, StandardCharsets.UTF_8).toString();
+		return new File(dir, key + ".json");
+	}
+}
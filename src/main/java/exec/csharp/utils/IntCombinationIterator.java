@@ -0,0 +1,167 @@
+/*
+ * Copyright 2014 Technische Universität Darmstadt
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package exec.csharp.utils;
+
+import cc.kave.commons.assertions.Asserts;
+
+/**
+ * Allocation-free enumeration of all k-subsets of the indices 0..n-1. The
+ * current selection is exposed as a sorted int array that is updated in
+ * place, so it must neither be modified nor kept beyond the next call of
+ * {@link #next()}.
+ * 
+ * In the {@link Order#REVOLVING_DOOR} order (Knuth, TAOCP 7.2.1.3, Algorithm
+ * R), consecutive selections differ in exactly one element, which is reported
+ * by {@link #getLastRemoved()} and {@link #getLastAdded()}.
+ */
+public class IntCombinationIterator {
+
+	public enum Order {
+		LEXICOGRAPHIC, REVOLVING_DOOR
+	}
+
+	private final int n;
+	private final int k;
+	private final Order order;
+	private final int[] selection;
+
+	private boolean isStarted = false;
+	private boolean isFinished = false;
+	private int lastRemoved = -1;
+	private int lastAdded = -1;
+
+	public IntCombinationIterator(int n, int k) {
+		this(n, k, Order.LEXICOGRAPHIC);
+	}
+
+	public IntCombinationIterator(int n, int k, Order order) {
+		Asserts.assertGreaterOrEqual(k, 0);
+		Asserts.assertGreaterOrEqual(n, k);
+		Asserts.assertNotNull(order);
+		this.n = n;
+		this.k = k;
+		this.order = order;
+		selection = new int[k];
+	}
+
+	/**
+	 * @return true, if the selection has been advanced to the next
+	 *         combination; false, if all combinations have been visited
+	 */
+	public boolean next() {
+		lastRemoved = -1;
+		lastAdded = -1;
+		if (isFinished) {
+			return false;
+		}
+		if (!isStarted) {
+			isStarted = true;
+			for (int i = 0; i < k; i++) {
+				selection[i] = i;
+			}
+			return true;
+		}
+		boolean hasNext = order == Order.LEXICOGRAPHIC ? advanceLexicographic() : advanceRevolvingDoor();
+		isFinished = !hasNext;
+		return hasNext;
+	}
+
+	private boolean advanceLexicographic() {
+		int[] c = selection;
+		for (int i = k - 1; i >= 0; i--) {
+			if (c[i] < n - k + i) {
+				c[i]++;
+				for (int j = i + 1; j < k; j++) {
+					c[j] = c[i] - i + j;
+				}
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private boolean advanceRevolvingDoor() {
+		// c_j of Algorithm R is stored in c[j-1], c_{k+1} is the sentinel n
+		int[] c = selection;
+		if (k == 0) {
+			return false;
+		}
+		if (k % 2 == 1) {
+			if (c[0] + 1 < at(1)) {
+				replace(0, c[0] + 1);
+				return true;
+			}
+		} else if (c[0] > 0) {
+			replace(0, c[0] - 1);
+			return true;
+		}
+
+		boolean tryDecrease = k % 2 == 1;
+		for (int j = 2; j <= k; j++) {
+			if (tryDecrease) {
+				if (c[j - 1] >= j) {
+					lastRemoved = c[j - 1];
+					lastAdded = j - 2;
+					c[j - 1] = c[j - 2];
+					c[j - 2] = j - 2;
+					return true;
+				}
+			} else if (c[j - 1] + 1 < at(j)) {
+				lastRemoved = j - 2;
+				c[j - 2] = c[j - 1];
+				c[j - 1]++;
+				lastAdded = c[j - 1];
+				return true;
+			}
+			tryDecrease = !tryDecrease;
+		}
+		return false;
+	}
+
+	private int at(int i) {
+		return i == k ? n : selection[i];
+	}
+
+	private void replace(int i, int val) {
+		lastRemoved = selection[i];
+		lastAdded = val;
+		selection[i] = val;
+	}
+
+	/**
+	 * @return the sorted, current selection (shared, must not be modified)
+	 */
+	public int[] getSelection() {
+		Asserts.assertTrue(isStarted && !isFinished, "no current selection");
+		return selection;
+	}
+
+	/**
+	 * @return the index that has been removed by the last call of next, or -1
+	 *         if unknown (first selection or lexicographic order)
+	 */
+	public int getLastRemoved() {
+		return lastRemoved;
+	}
+
+	/**
+	 * @return the index that has been added by the last call of next, or -1 if
+	 *         unknown (first selection or lexicographic order)
+	 */
+	public int getLastAdded() {
+		return lastAdded;
+	}
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2014 Technische Universität Darmstadt
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package exec.csharp.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+import cc.kave.commons.model.naming.types.ITypeName;
+import cc.kave.commons.utils.io.Directory;
+import cc.kave.commons.utils.io.IReadingArchive;
+import cc.kave.commons.utils.io.NestedZipFolders;
+import cc.kave.rsse.calls.usages.Usage;
+import exec.csharp.utils.ColumnarCodec.Kind;
+import exec.validate_evaluation.microcommits.MicroCommit;
+
+/**
+ * {@link NestedZipFolders} that answers key lookups from a {@link TypeManifest}
+ * instead of walking the directory tree on every call. Zips that have been
+ * converted to the {@link ColumnarCodec} format are read from their binary
+ * copy.
+ */
+public class ManifestZipFolders extends NestedZipFolders<ITypeName> {
+
+	private final String root;
+	private final Directory dir;
+	private final TypeManifest manifest;
+
+	public ManifestZipFolders(String root, TypeManifest manifest) {
+		this(root, new Directory(root), manifest);
+	}
+
+	private ManifestZipFolders(String root, Directory dir, TypeManifest manifest) {
+		super(dir, ITypeName.class);
+		this.root = root;
+		this.dir = dir;
+		this.manifest = manifest;
+	}
+
+	public TypeManifest getManifest() {
+		return manifest;
+	}
+
+	@Override
+	public Set<ITypeName> findKeys() {
+		return Sets.newLinkedHashSet(manifest.getTypes());
+	}
+
+	@Override
+	public boolean hasZips(ITypeName key) {
+		return manifest.hasZips(key);
+	}
+
+	@Override
+	public <T> List<T> readAllZips(ITypeName key, Class<T> c) {
+		List<T> entries = Lists.newLinkedList();
+		for (String zip : manifest.getZips(key)) {
+			File columnar = ColumnarCodec.getFile(root, zip);
+			if (ColumnarCodec.isUpToDate(columnar) && readColumnar(columnar, c, entries)) {
+				continue;
+			}
+			try (IReadingArchive ra = dir.getReadingArchive(zip)) {
+				while (ra.hasNext()) {
+					entries.add(ra.getNext(c));
+				}
+			} catch (IOException e) {
+				throw new RuntimeException(e);
+			}
+		}
+		return entries;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> boolean readColumnar(File file, Class<T> c, List<T> entries) {
+		Kind kind = ColumnarCodec.readKind(file);
+		if (kind == Kind.USAGES && c.isAssignableFrom(Usage.class)) {
+			entries.addAll((List<T>) ColumnarCodec.readUsages(file));
+			return true;
+		}
+		if (kind == Kind.MICRO_COMMITS && c == MicroCommit.class) {
+			entries.addAll((List<T>) ColumnarCodec.readMicroCommits(file));
+			return true;
+		}
+		return false;
+	}
+}
@@ -0,0 +1,308 @@
+/*
+ * Copyright 2014 Technische Universität Darmstadt
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package exec.csharp.utils;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import cc.kave.commons.model.naming.Names;
+import cc.kave.commons.model.naming.types.ITypeName;
+import cc.kave.commons.utils.io.NestedZipFolders;
+import cc.kave.rsse.calls.usages.Query;
+import cc.kave.rsse.calls.usages.Usage;
+
+/**
+ * Read-only store that packs the usages of all types into a single file. Every
+ * type is stored as one {@link ColumnarCodec} slice and an index at the end of
+ * the file maps each type to the offset, length, and number of usages of its
+ * slice. Reading a type maps its slice into memory, so no archive needs to be
+ * inflated and the pages are shared through the OS page cache between all
+ * processes that read the same store. The index also records the
+ * {@link ZipFingerprint} of the zips the store was packed from.
+ */
+public class MappedUsageStore implements Closeable {
+
+	public static final String FILE_NAME = "usages.mapped";
+
+	private static final int MAGIC = 0x4B4D5553; // "KMUS"
+	private static final int VERSION = 3;
+	// magic, version, offset of the index
+	private static final int HEADER_SIZE = 4 + 4 + 8;
+
+	private final File file;
+	private final FileChannel channel;
+	private final Map<ITypeName, Slice> index;
+	private final String fingerprint;
+
+	private MappedUsageStore(File file, FileChannel channel, Map<ITypeName, Slice> index, String fingerprint) {
+		this.file = file;
+		this.channel = channel;
+		this.index = index;
+		this.fingerprint = fingerprint;
+	}
+
+	public String getFingerprint() {
+		return fingerprint;
+	}
+
+	/**
+	 * @return true, if the zips next to the store have not changed since it was
+	 *         packed
+	 */
+	public boolean isUpToDate() {
+		return ZipFingerprint.of(file.getParent()).equals(fingerprint);
+	}
+
+	public Set<ITypeName> getTypes() {
+		return Collections.unmodifiableSet(index.keySet());
+	}
+
+	public boolean hasType(ITypeName type) {
+		return index.containsKey(type);
+	}
+
+	public int getNumUsages(ITypeName type) {
+		Slice s = index.get(type);
+		return s == null ? 0 : s.count;
+	}
+
+	public long getSizeInBytes(ITypeName type) {
+		Slice s = index.get(type);
+		return s == null ? 0 : s.length;
+	}
+
+	/**
+	 * @return the usages of the type, decoded one by one while iterating; every
+	 *         call of iterator() maps the slice again
+	 */
+	public Iterable<Usage> read(ITypeName type) {
+		Slice s = index.get(type);
+		if (s == null) {
+			return Collections.emptyList();
+		}
+		return () -> new CountingIterator(type, s, ColumnarCodec.iterateUsages(map(s)).iterator());
+	}
+
+	private MappedByteBuffer map(Slice s) {
+		try {
+			return channel.map(MapMode.READ_ONLY, s.offset, s.length);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	public static File getFile(String root) {
+		return new File(root, FILE_NAME);
+	}
+
+	public static boolean exists(String root) {
+		return getFile(root).exists();
+	}
+
+	public static MappedUsageStore open(String root) {
+		File file = getFile(root);
+		FileChannel channel = null;
+		try {
+			channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+			Map<ITypeName, Slice> index = Maps.newLinkedHashMap();
+			String fingerprint = readIndex(channel, file, index);
+			return new MappedUsageStore(file, channel, index, fingerprint);
+		} catch (IOException | RuntimeException e) {
+			closeQuietly(channel);
+			throw new RuntimeException("cannot open " + file, e);
+		}
+	}
+
+	/**
+	 * packs all usages of the given folders into a new store in root, an
+	 * existing store is replaced
+	 */
+	public static void create(String root, NestedZipFolders<ITypeName> usages) {
+		File file = getFile(root);
+		file.getParentFile().mkdirs();
+		File tmp = new File(file.getPath() + ".tmp");
+
+		// taken before reading, so concurrent changes make the store outdated
+		String fingerprint = ZipFingerprint.of(root);
+		Map<ITypeName, Slice> index = Maps.newLinkedHashMap();
+		try (FileChannel out = FileChannel.open(tmp.toPath(), StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			long offset = HEADER_SIZE;
+			out.position(offset);
+			for (ITypeName type : usages.findKeys()) {
+				List<Query> qs = usages.readAllZips(type, Query.class);
+				byte[] slice = ColumnarCodec.encodeUsages(qs);
+				writeFully(out, ByteBuffer.wrap(slice));
+				index.put(type, new Slice(offset, slice.length, qs.size()));
+				offset += slice.length;
+			}
+			writeFully(out, encodeIndex(index, fingerprint));
+
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			header.putInt(MAGIC).putInt(VERSION).putLong(offset);
+			header.flip();
+			out.position(0);
+			writeFully(out, header);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+
+		file.delete();
+		if (!tmp.renameTo(file)) {
+			throw new RuntimeException("cannot write " + file);
+		}
+	}
+
+	private static ByteBuffer encodeIndex(Map<ITypeName, Slice> index, String fingerprint) {
+		byte[] fp = fingerprint.getBytes(StandardCharsets.UTF_8);
+		List<byte[]> ids = Lists.newArrayList();
+		int size = 4 + fp.length + 4;
+		for (ITypeName type : index.keySet()) {
+			byte[] id = type.getIdentifier().getBytes(StandardCharsets.UTF_8);
+			ids.add(id);
+			size += 4 + id.length + 8 + 4 + 4;
+		}
+		ByteBuffer buffer = ByteBuffer.allocate(size);
+		buffer.putInt(fp.length).put(fp);
+		buffer.putInt(index.size());
+		int i = 0;
+		for (Slice s : index.values()) {
+			byte[] id = ids.get(i++);
+			buffer.putInt(id.length).put(id);
+			buffer.putLong(s.offset).putInt(s.length).putInt(s.count);
+		}
+		buffer.flip();
+		return buffer;
+	}
+
+	/**
+	 * @return the fingerprint stored in the index
+	 */
+	private static String readIndex(FileChannel channel, File file, Map<ITypeName, Slice> index)
+			throws IOException {
+		long size = channel.size();
+		if (size < HEADER_SIZE) {
+			throw new RuntimeException("not a mapped usage store: " + file);
+		}
+		ByteBuffer header = channel.map(MapMode.READ_ONLY, 0, HEADER_SIZE);
+		if (header.getInt() != MAGIC) {
+			throw new RuntimeException("not a mapped usage store: " + file);
+		}
+		int version = header.getInt();
+		if (version != VERSION) {
+			throw new RuntimeException(String.format("unsupported version %d: %s", version, file));
+		}
+		long indexOffset = header.getLong();
+		if (indexOffset < HEADER_SIZE || indexOffset > size) {
+			throw new RuntimeException("corrupt index offset: " + file);
+		}
+
+		ByteBuffer buffer = channel.map(MapMode.READ_ONLY, indexOffset, size - indexOffset);
+		byte[] fingerprint = new byte[buffer.getInt()];
+		buffer.get(fingerprint);
+		int num = buffer.getInt();
+		for (int i = 0; i < num; i++) {
+			byte[] id = new byte[buffer.getInt()];
+			buffer.get(id);
+			Slice s = new Slice(buffer.getLong(), buffer.getInt(), buffer.getInt());
+			if (s.offset < HEADER_SIZE || s.offset + s.length > indexOffset) {
+				throw new RuntimeException("corrupt index entry: " + file);
+			}
+			index.put(Names.newType(new String(id, StandardCharsets.UTF_8)), s);
+		}
+		return new String(fingerprint, StandardCharsets.UTF_8);
+	}
+
+	private static void writeFully(FileChannel out, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			out.write(buffer);
+		}
+	}
+
+	private static void closeQuietly(Closeable c) {
+		if (c == null) {
+			return;
+		}
+		try {
+			c.close();
+		} catch (IOException e) {
+			// already failing
+		}
+	}
+
+	/** checks the number of decoded usages against the index */
+	private class CountingIterator implements Iterator<Usage> {
+		private final ITypeName type;
+		private final Slice slice;
+		private final Iterator<Usage> usages;
+		private int num = 0;
+
+		private CountingIterator(ITypeName type, Slice slice, Iterator<Usage> usages) {
+			this.type = type;
+			this.slice = slice;
+			this.usages = usages;
+		}
+
+		@Override
+		public boolean hasNext() {
+			boolean hasNext = usages.hasNext();
+			if (!hasNext && num != slice.count) {
+				throw new RuntimeException(String.format("expected %d usages for %s in %s, but found %d",
+						slice.count, type, file, num));
+			}
+			return hasNext;
+		}
+
+		@Override
+		public Usage next() {
+			Usage u = usages.next();
+			num++;
+			return u;
+		}
+	}
+
+	private static class Slice {
+		private final long offset;
+		private final int length;
+		private final int count;
+
+		private Slice(long offset, int length, int count) {
+			this.offset = offset;
+			this.length = length;
+			this.count = count;
+		}
+	}
+}
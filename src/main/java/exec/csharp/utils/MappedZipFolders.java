@@ -0,0 +1,71 @@
+/*
+ * Copyright 2014 Technische Universität Darmstadt
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package exec.csharp.utils;
+
+import java.util.List;
+import java.util.Set;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+import cc.kave.commons.model.naming.types.ITypeName;
+import cc.kave.commons.utils.io.Directory;
+import cc.kave.commons.utils.io.NestedZipFolders;
+import cc.kave.rsse.calls.usages.Query;
+import cc.kave.rsse.calls.usages.Usage;
+
+/**
+ * {@link NestedZipFolders} of the Usages store that serves all reads from a
+ * {@link MappedUsageStore}. Requests for other classes than usages still go to
+ * the zips.
+ */
+public class MappedZipFolders extends NestedZipFolders<ITypeName> {
+
+	private final MappedUsageStore store;
+
+	public MappedZipFolders(String root, MappedUsageStore store) {
+		super(new Directory(root), ITypeName.class);
+		this.store = store;
+	}
+
+	public MappedUsageStore getStore() {
+		return store;
+	}
+
+	@Override
+	public Set<ITypeName> findKeys() {
+		return Sets.newLinkedHashSet(store.getTypes());
+	}
+
+	@Override
+	public boolean hasZips(ITypeName key) {
+		return store.hasType(key);
+	}
+
+	@Override
+	public <T> List<T> readAllZips(ITypeName key, Class<T> c) {
+		if (!c.isAssignableFrom(Query.class)) {
+			return super.readAllZips(key, c);
+		}
+		List<T> entries = Lists.newLinkedList();
+		for (Usage u : store.read(key)) {
+			if (c.isInstance(u)) {
+				entries.add(c.cast(u));
+			}
+		}
+		return entries;
+	}
+}
@@ -15,54 +15,174 @@
  */
 package exec.csharp.utils;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
 
-import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.inject.Inject;
+import com.google.inject.Provider;
 
 import cc.kave.commons.model.naming.types.ITypeName;
-import cc.kave.commons.utils.SublistSelector;
+import cc.kave.commons.utils.io.Directory;
+import cc.kave.commons.utils.io.IReadingArchive;
 import cc.kave.commons.utils.io.NestedZipFolders;
 import cc.kave.rsse.calls.ICallsRecommender;
 import cc.kave.rsse.calls.mining.NoCallRecommender;
+import cc.kave.rsse.calls.options.MiningOptions;
+import cc.kave.rsse.calls.options.QueryOptions;
 import cc.kave.rsse.calls.pbn.PBNMiner;
+import cc.kave.rsse.calls.pbn.PBNRecommender;
+import cc.kave.rsse.calls.pbn.model.BayesianNetwork;
 import cc.kave.rsse.calls.usages.Query;
 import cc.kave.rsse.calls.usages.Usage;
 
 public class ModelHelper {
 
 	public static final int MAX_NUM_USAGES = 30000;
+	public static final long SAMPLING_SEED = 1234;
 
-	private PBNMiner miner;
+	// used whenever the size of a model cannot be derived from its stored file
+	public static final long DEFAULT_MODEL_SIZE = 1024 * 1024;
+
+	private Provider<PBNMiner> minerProvider;
 	private NestedZipFolders<ITypeName> zipsUsages;
+	private Directory dirUsages;
+	private String rootUsages;
+	private TypeManifest manifest;
+	private TypeZipIndex zipIndex;
+	private MappedUsageStore mappedUsages;
 
-	@Inject
-	public ModelHelper(PBNMiner miner, StorageHelper storageHelper) {
-		this.miner = miner;
+	private ModelStore store;
+	private MiningOptions mOpts;
+	private QueryOptions qOpts;
+
+	private final ConcurrentMap<ITypeName, Object> locks = Maps.newConcurrentMap();
+	private final RecommenderCache<ITypeName, ICallsRecommender<Query>> cache = new RecommenderCache<>(
+			Runtime.getRuntime().maxMemory() / 4);
+
+	public ModelHelper(Provider<PBNMiner> minerProvider, StorageHelper storageHelper) {
+		this.minerProvider = minerProvider;
 		zipsUsages = storageHelper.getNestedZipFolder(StorageCase.USAGES);
+		dirUsages = storageHelper.getDirectory(StorageCase.USAGES);
+		rootUsages = storageHelper.getPath(StorageCase.USAGES);
+		manifest = storageHelper.getManifest(StorageCase.USAGES);
+		zipIndex = new TypeZipIndex(dirUsages, manifest);
+		mappedUsages = storageHelper.getMappedUsages();
+	}
+
+	@Inject
+	public ModelHelper(Provider<PBNMiner> minerProvider, StorageHelper storageHelper, MiningOptions mOpts,
+			QueryOptions qOpts) {
+		this(minerProvider, storageHelper);
+		this.mOpts = mOpts;
+		this.qOpts = qOpts;
+		store = new ModelStore(storageHelper.getPath(StorageCase.NETWORKS));
 	}
 
+	public RecommenderCache<ITypeName, ICallsRecommender<Query>> getCache() {
+		return cache;
+	}
+
+	/**
+	 * Can be called from several threads. Concurrent requests for the same type
+	 * wait for a single model, the models of different types are trained
+	 * concurrently. PBNMiner makes no guarantees about thread safety, so every
+	 * model is learned by a miner of its own.
+	 */
 	public ICallsRecommender<Query> get(ITypeName type) {
+		synchronized (getLock(type)) {
+			ICallsRecommender<Query> rec = cache.get(type);
+			if (rec == null) {
+				rec = create(type);
+			}
+			return rec;
+		}
+	}
+
+	/**
+	 * @return the number of usages of the type, taken from the index of the
+	 *         store if possible, without keeping any of the usages in memory
+	 */
+	public int getNumUsages(ITypeName type) {
+		if (!zipsUsages.hasZips(type)) {
+			return 0;
+		}
+		if (mappedUsages != null) {
+			return mappedUsages.getNumUsages(type);
+		}
+		if (manifest != null) {
+			return manifest.getNumEntries(type);
+		}
+		int[] count = new int[1];
+		readUsages(type, u -> count[0]++);
+		return count[0];
+	}
+
+	private Object getLock(ITypeName type) {
+		return locks.computeIfAbsent(type, t -> new Object());
+	}
+
+	private ICallsRecommender<Query> create(ITypeName type) {
 
 		if (!zipsUsages.hasZips(type)) {
 			return new NoCallRecommender();
 		}
 
-		List<Usage> usages = readTrainingData(type, zipsUsages);
+		List<Usage> usages = readTrainingData(type);
 		if (usages.isEmpty()) {
 			return new NoCallRecommender();
 		}
 
-		if (usages.size() > MAX_NUM_USAGES) {
-			usages = SublistSelector.pickRandomSublist(usages, MAX_NUM_USAGES);
+		if (store == null) {
+			ICallsRecommender<Query> rec = minerProvider.get().createRecommender(usages);
+			cache.put(type, rec, DEFAULT_MODEL_SIZE);
+			return rec;
+		}
+
+		String key = store.getKey(type, usages, mOpts.toString(), SAMPLING_SEED);
+		BayesianNetwork network = store.load(key);
+		if (network == null) {
+			network = minerProvider.get().learnModel(usages);
+			store.store(key, network);
 		}
+		long size = store.contains(key) ? store.getSizeInBytes(key) : DEFAULT_MODEL_SIZE;
+		PBNRecommender rec = new PBNRecommender(network, qOpts);
+		cache.put(type, rec, size);
+		return rec;
+	}
 
-		ICallsRecommender<Query> recommender = miner.createRecommender(usages);
-		return recommender;
+	private List<Usage> readTrainingData(ITypeName type) {
+		// streams all usages, but never holds more than MAX_NUM_USAGES of them
+		ReservoirSampler<Usage> sampler = new ReservoirSampler<Usage>(MAX_NUM_USAGES, SAMPLING_SEED);
+		readUsages(type, sampler::add);
+		return sampler.getSample();
 	}
 
-	private List<Usage> readTrainingData(ITypeName type, NestedZipFolders<ITypeName> zipsUsages) {
-		List<Query> qs = zipsUsages.readAllZips(type, Query.class);
-		return Lists.newLinkedList(qs);
+	private void readUsages(ITypeName type, Consumer<Usage> consumer) {
+		if (mappedUsages != null) {
+			for (Usage u : mappedUsages.read(type)) {
+				consumer.accept(u);
+			}
+			return;
+		}
+		for (String zip : zipIndex.getZips(type)) {
+			File columnar = ColumnarCodec.getFile(rootUsages, zip);
+			if (ColumnarCodec.isUpToDate(columnar)) {
+				for (Usage u : ColumnarCodec.iterateUsages(columnar)) {
+					consumer.accept(u);
+				}
+				continue;
+			}
+			try (IReadingArchive ra = dirUsages.getReadingArchive(zip)) {
+				while (ra.hasNext()) {
+					consumer.accept(ra.getNext(Query.class));
+				}
+			} catch (IOException e) {
+				throw new RuntimeException(e);
+			}
+		}
 	}
 }
\ No newline at end of file
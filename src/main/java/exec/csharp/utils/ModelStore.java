@@ -0,0 +1,121 @@
+/*
+ * Copyright 2014 Technische Universität Darmstadt
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package exec.csharp.utils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+
+import com.google.gson.Gson;
+
+import cc.kave.commons.model.naming.types.ITypeName;
+import cc.kave.rsse.calls.pbn.model.BayesianNetwork;
+import cc.kave.rsse.calls.usages.Usage;
+
+/**
+ * Persists trained networks in the NETWORKS storage case. A network is only
+ * reused if type, training data, mining options and sampling seed match.
+ */
+public class ModelStore {
+
+	private final File dir;
+	private final Gson gson = new Gson();
+
+	public ModelStore(String dir) {
+		this.dir = new File(dir);
+	}
+
+	public String getKey(ITypeName type, List<Usage> usages, String miningOptions, long seed) {
+		MessageDigest md = newDigest();
+		update(md, type.toString());
+		update(md, miningOptions);
+		update(md, Long.toString(seed));
+		for (Usage u : usages) {
+			update(md, gson.toJson(u));
+		}
+		return toHex(md.digest());
+	}
+
+	public boolean contains(String key) {
+		return file(key).exists();
+	}
+
+	public long getSizeInBytes(String key) {
+		return file(key).length();
+	}
+
+	public BayesianNetwork load(String key) {
+		File f = file(key);
+		if (!f.exists()) {
+			return null;
+		}
+		try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(f)))) {
+			return (BayesianNetwork) in.readObject();
+		} catch (IOException | ClassNotFoundException e) {
+			// outdated or broken entries are treated as a miss and retrained
+			f.delete();
+			return null;
+		}
+	}
+
+	public void store(String key, BayesianNetwork network) {
+		dir.mkdirs();
+		File tmp = new File(dir, key + ".tmp");
+		try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+			out.writeObject(network);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+		// rename is atomic, so parallel readers never see a partial file
+		if (!tmp.renameTo(file(key))) {
+			tmp.delete();
+		}
+	}
+
+	private File file(String key) {
+		return new File(dir, key + ".ser");
+	}
+
+	private static void update(MessageDigest md, String s) {
+		md.update(s.getBytes(StandardCharsets.UTF_8));
+		md.update((byte) '\n');
+	}
+
+	private static MessageDigest newDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-1");
+		} catch (NoSuchAlgorithmException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private static String toHex(byte[] bytes) {
+		StringBuilder sb = new StringBuilder();
+		for (byte b : bytes) {
+			sb.append(String.format("%02x", b));
+		}
+		return sb.toString();
+	}
+}
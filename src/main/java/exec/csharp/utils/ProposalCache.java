@@ -0,0 +1,186 @@
+/*
+ * Copyright 2014 Technische Universität Darmstadt
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package exec.csharp.utils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.SortedMap;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import cc.kave.commons.assertions.Asserts;
+import cc.kave.commons.model.naming.codeelements.IMethodName;
+import cc.kave.rsse.calls.ICallsRecommender;
+import cc.kave.rsse.calls.datastructures.Tuple;
+import cc.kave.rsse.calls.usages.CallSite;
+import cc.kave.rsse.calls.usages.Query;
+import cc.kave.rsse.calls.usages.Usage;
+
+/**
+ * Memoizes the proposals of one recommender (i.e., of one type). Identical
+ * queries are recognized by a canonical fingerprint of their names, so the
+ * cache has to be recreated whenever the model changes. Instances are not thread-safe.
+ */
+public class ProposalCache {
+
+	public static final int DEFAULT_MAX_SIZE = 10000;
+
+	private final ICallsRecommender<Query> rec;
+	private final Map<String, Set<IMethodName>> cache;
+
+	private long numHits = 0;
+	private long numMisses = 0;
+	private long numEvictions = 0;
+
+	public ProposalCache(ICallsRecommender<Query> rec) {
+		this(rec, DEFAULT_MAX_SIZE);
+	}
+
+	public ProposalCache(ICallsRecommender<Query> rec, int maxSize) {
+		Asserts.assertNotNull(rec);
+		Asserts.assertGreaterOrEqual(maxSize, 1);
+		this.rec = rec;
+		cache = new LinkedHashMap<String, Set<IMethodName>>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Entry<String, Set<IMethodName>> eldest) {
+				if (size() > maxSize) {
+					numEvictions++;
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	public ICallsRecommender<Query> getRecommender() {
+		return rec;
+	}
+
+	public Set<IMethodName> getProposals(Query query) {
+		String key = getFingerprint(query);
+		Set<IMethodName> proposals = cache.get(key);
+		if (proposals != null) {
+			numHits++;
+			return proposals;
+		}
+		numMisses++;
+		proposals = query(query);
+		cache.put(key, proposals);
+		return proposals;
+	}
+
+	/**
+	 * Answers a whole batch of queries (e.g., all queries of one type). Every
+	 * distinct query is only sent once to the recommender, and queries with the
+	 * same context and definition are sent consecutively. The results are
+	 * returned in the order of the input, independent of the cache size.
+	 */
+	public List<Set<IMethodName>> getProposals(List<Query> queries) {
+		List<String> keys = Lists.newArrayListWithCapacity(queries.size());
+		Map<String, Set<IMethodName>> answers = Maps.newHashMap();
+		SortedMap<String, Query> open = Maps.newTreeMap();
+		for (Query q : queries) {
+			String key = getFingerprint(q);
+			keys.add(key);
+			if (answers.containsKey(key) || open.containsKey(key)) {
+				numHits++;
+				continue;
+			}
+			Set<IMethodName> proposals = cache.get(key);
+			if (proposals != null) {
+				numHits++;
+				answers.put(key, proposals);
+			} else {
+				numMisses++;
+				open.put(key, q);
+			}
+		}
+
+		for (Entry<String, Query> e : open.entrySet()) {
+			Set<IMethodName> proposals = query(e.getValue());
+			answers.put(e.getKey(), proposals);
+			cache.put(e.getKey(), proposals);
+		}
+
+		List<Set<IMethodName>> results = Lists.newArrayListWithCapacity(keys.size());
+		for (String key : keys) {
+			results.add(answers.get(key));
+		}
+		return results;
+	}
+
+	private Set<IMethodName> query(Query query) {
+		Set<IMethodName> proposals = Sets.newHashSet();
+		for (Tuple<IMethodName, Double> p : rec.query(query)) {
+			proposals.add(p.getFirst());
+		}
+		return Collections.unmodifiableSet(proposals);
+	}
+
+	/**
+	 * type, contexts, definition and the sorted call sites of the usage, all
+	 * identified by their names
+	 */
+	public String getFingerprint(Usage u) {
+		Set<CallSite> sites = u.getAllCallsites();
+		String[] callSites = new String[sites.size()];
+		int i = 0;
+		for (CallSite cs : sites) {
+			callSites[i++] = QueryUtils.toKey(cs);
+		}
+		Arrays.sort(callSites);
+
+		StringBuilder sb = new StringBuilder();
+		sb.append(QueryUtils.toKey(u.getType())).append('\n');
+		sb.append(QueryUtils.toKey(u.getClassContext())).append('\n');
+		sb.append(QueryUtils.toKey(u.getMethodContext())).append('\n');
+		sb.append(QueryUtils.toKey(u.getDefinitionSite())).append('\n');
+		for (String cs : callSites) {
+			sb.append(cs).append('\n');
+		}
+		return sb.toString();
+	}
+
+	public int getSize() {
+		return cache.size();
+	}
+
+	public long getNumHits() {
+		return numHits;
+	}
+
+	public long getNumMisses() {
+		return numMisses;
+	}
+
+	public long getNumEvictions() {
+		return numEvictions;
+	}
+
+	public double getHitRate() {
+		long total = numHits + numMisses;
+		return total == 0 ? 0 : numHits / (double) total;
+	}
+}
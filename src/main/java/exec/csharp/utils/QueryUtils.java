@@ -15,7 +15,9 @@
  */
 package exec.csharp.utils;
 
+import cc.kave.commons.model.naming.IName;
 import cc.kave.rsse.calls.usages.CallSite;
+import cc.kave.rsse.calls.usages.DefinitionSite;
 import cc.kave.rsse.calls.usages.NoUsage;
 import cc.kave.rsse.calls.usages.Usage;
 import exec.validate_evaluation.microcommits.MicroCommit;
@@ -112,4 +114,28 @@ public class QueryUtils {
 		}
 		return removals;
 	}
+
+	/**
+	 * @return a key of the call site that only consists of its kind, argument
+	 *         index and name, so it is cheap to build and (unlike hashCode())
+	 *         stable across JVMs
+	 */
+	public static String toKey(CallSite cs) {
+		return cs.getKind() + " " + cs.getArgIndex() + " " + toKey(cs.getMethod());
+	}
+
+	/**
+	 * @return a key of the definition site that only consists of its kind,
+	 *         argument index and names
+	 */
+	public static String toKey(DefinitionSite def) {
+		if (def == null) {
+			return "";
+		}
+		return def.getKind() + " " + def.getArgIndex() + " " + toKey(def.getMethod()) + "\t" + toKey(def.getField());
+	}
+
+	public static String toKey(IName name) {
+		return name == null ? "" : name.getIdentifier();
+	}
 }
\ No newline at end of file
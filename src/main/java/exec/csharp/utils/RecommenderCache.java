@@ -0,0 +1,115 @@
+/*
+ * Copyright 2014 Technische Universität Darmstadt
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package exec.csharp.utils;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import cc.kave.commons.assertions.Asserts;
+import cc.kave.rsse.calls.datastructures.Tuple;
+
+/**
+ * LRU cache that is bounded by the (estimated) size of its entries in bytes
+ * instead of by the number of entries.
+ */
+public class RecommenderCache<K, V> {
+
+	private final Map<K, Tuple<V, Long>> entries = new LinkedHashMap<K, Tuple<V, Long>>(16, 0.75f, true);
+
+	private long capacityInBytes;
+	private long sizeInBytes = 0;
+
+	private long numHits = 0;
+	private long numMisses = 0;
+	private long numEvictions = 0;
+
+	public RecommenderCache(long capacityInBytes) {
+		setCapacity(capacityInBytes);
+	}
+
+	public synchronized void setCapacity(long capacityInBytes) {
+		Asserts.assertGreaterOrEqual(capacityInBytes, 0);
+		this.capacityInBytes = capacityInBytes;
+		evictIfNecessary();
+	}
+
+	public synchronized V get(K key) {
+		Tuple<V, Long> entry = entries.get(key);
+		if (entry == null) {
+			numMisses++;
+			return null;
+		}
+		numHits++;
+		return entry.getFirst();
+	}
+
+	public synchronized void put(K key, V value, long estimatedSizeInBytes) {
+		Tuple<V, Long> old = entries.remove(key);
+		if (old != null) {
+			sizeInBytes -= old.getSecond();
+		}
+		if (estimatedSizeInBytes > capacityInBytes) {
+			// would evict everything else and still not fit
+			return;
+		}
+		entries.put(key, Tuple.newTuple(value, estimatedSizeInBytes));
+		sizeInBytes += estimatedSizeInBytes;
+		evictIfNecessary();
+	}
+
+	public synchronized void clear() {
+		entries.clear();
+		sizeInBytes = 0;
+	}
+
+	private void evictIfNecessary() {
+		Iterator<Entry<K, Tuple<V, Long>>> it = entries.entrySet().iterator();
+		while (sizeInBytes > capacityInBytes && it.hasNext()) {
+			Entry<K, Tuple<V, Long>> eldest = it.next();
+			sizeInBytes -= eldest.getValue().getSecond();
+			it.remove();
+			numEvictions++;
+		}
+	}
+
+	public synchronized int getNumEntries() {
+		return entries.size();
+	}
+
+	public synchronized long getSizeInBytes() {
+		return sizeInBytes;
+	}
+
+	public synchronized long getNumHits() {
+		return numHits;
+	}
+
+	public synchronized long getNumMisses() {
+		return numMisses;
+	}
+
+	public synchronized long getNumEvictions() {
+		return numEvictions;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return String.format("%d entries (%.1f of %.1f MB), %d hits, %d misses, %d evictions", entries.size(),
+				sizeInBytes / (1024.0 * 1024), capacityInBytes / (1024.0 * 1024), numHits, numMisses, numEvictions);
+	}
+}
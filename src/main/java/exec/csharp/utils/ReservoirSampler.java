@@ -0,0 +1,64 @@
+/*
+ * Copyright 2014 Technische Universität Darmstadt
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package exec.csharp.utils;
+
+import java.util.List;
+import java.util.Random;
+
+import com.google.common.collect.Lists;
+
+import cc.kave.commons.assertions.Asserts;
+
+/**
+ * Uniform random sample of a stream of unknown length that never holds more
+ * than the requested number of elements (Algorithm R). For the same seed and
+ * the same input order, the resulting sample is always the same.
+ */
+public class ReservoirSampler<T> {
+
+	private final int capacity;
+	private final Random rnd;
+	private final List<T> sample;
+
+	private int numSeen = 0;
+
+	public ReservoirSampler(int capacity, long seed) {
+		Asserts.assertGreaterOrEqual(capacity, 1);
+		this.capacity = capacity;
+		rnd = new Random(seed);
+		sample = Lists.newArrayListWithCapacity(Math.min(capacity, 1024));
+	}
+
+	public void add(T t) {
+		numSeen++;
+		if (sample.size() < capacity) {
+			sample.add(t);
+		} else {
+			int idx = rnd.nextInt(numSeen);
+			if (idx < capacity) {
+				sample.set(idx, t);
+			}
+		}
+	}
+
+	public int getNumSeen() {
+		return numSeen;
+	}
+
+	public List<T> getSample() {
+		return sample;
+	}
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2014 Technische Universität Darmstadt
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package exec.csharp.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+import com.google.common.collect.Sets;
+import com.google.common.hash.Hashing;
+
+import cc.kave.commons.assertions.Asserts;
+import cc.kave.commons.model.naming.types.ITypeName;
+
+/**
+ * Subset of the type key space, selected by a hash of the type identifier that
+ * is stable across JVMs and machines.
+ */
+public class Shard {
+
+	private final int index;
+	private final int numShards;
+
+	public Shard(int index, int numShards) {
+		Asserts.assertGreaterOrEqual(numShards, 1);
+		Asserts.assertGreaterOrEqual(index, 0);
+		Asserts.assertTrue(index < numShards);
+		this.index = index;
+		this.numShards = numShards;
+	}
+
+	public static Shard all() {
+		return new Shard(0, 1);
+	}
+
+	public int getIndex() {
+		return index;
+	}
+
+	public int getNumShards() {
+		return numShards;
+	}
+
+	public boolean contains(ITypeName type) {
+		if (numShards == 1) {
+			return true;
+		}
+		int hash = Hashing.murmur3_32().hashString(type.getIdentifier(), StandardCharsets.UTF_8).asInt();
+		return Math.floorMod(hash, numShards) == index;
+	}
+
+	public Set<ITypeName> filter(Set<ITypeName> types) {
+		Set<ITypeName> filtered = Sets.newLinkedHashSet();
+		for (ITypeName type : types) {
+			if (contains(type)) {
+				filtered.add(type);
+			}
+		}
+		return filtered;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("shard %d/%d", index + 1, numShards);
+	}
+}
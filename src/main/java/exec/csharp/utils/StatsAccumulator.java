@@ -0,0 +1,241 @@
+/*
+ * Copyright 2014 Technische Universität Darmstadt
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package exec.csharp.utils;
+
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import cc.kave.commons.assertions.Asserts;
+import cc.kave.commons.evaluation.Boxplot;
+import cc.kave.commons.evaluation.BoxplotData;
+
+/**
+ * Mergeable replacement for {@link BoxplotData} with constant memory. Count,
+ * mean, variance, min, and max are always exact. Quantiles are exact as long as
+ * at most {@link #EXACT_LIMIT} values have been added; beyond that, the values
+ * are folded into a logarithmic histogram that guarantees a relative error of
+ * at most {@link #RELATIVE_ACCURACY} (e.g., 0.5% for an F1 of 0.4).
+ */
+public class StatsAccumulator {
+
+	public static final int EXACT_LIMIT = 1000;
+	public static final double RELATIVE_ACCURACY = 0.005;
+
+	// values closer to zero are counted as zero
+	private static final double MIN_INDEXABLE = 1E-9;
+
+	private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+	private static final double LOG_GAMMA = Math.log(GAMMA);
+
+	private long count = 0;
+	private double mean = 0;
+	private double m2 = 0;
+	private double min = Double.POSITIVE_INFINITY;
+	private double max = Double.NEGATIVE_INFINITY;
+
+	// exact values, null after switching to the histogram
+	private BoxplotData exact = new BoxplotData();
+
+	private NavigableMap<Integer, Long> positives;
+	private NavigableMap<Integer, Long> negatives;
+	private long numZeros;
+
+	public void add(double val) {
+		count++;
+		double delta = val - mean;
+		mean += delta / count;
+		m2 += delta * (val - mean);
+		min = Math.min(min, val);
+		max = Math.max(max, val);
+
+		if (exact != null) {
+			exact.add(val);
+			if (count > EXACT_LIMIT) {
+				switchToHistogram();
+			}
+		} else {
+			addToHistogram(val, 1);
+		}
+	}
+
+	public void merge(StatsAccumulator other) {
+		if (other.count == 0) {
+			return;
+		}
+		if (exact != null && other.exact != null && count + other.count <= EXACT_LIMIT) {
+			for (double val : other.exact.getRawValues()) {
+				exact.add(val);
+			}
+		} else {
+			if (exact != null) {
+				switchToHistogram();
+			}
+			if (other.exact != null) {
+				for (double val : other.exact.getRawValues()) {
+					addToHistogram(val, 1);
+				}
+			} else {
+				mergeBuckets(other.positives, positives);
+				mergeBuckets(other.negatives, negatives);
+				numZeros += other.numZeros;
+			}
+		}
+
+		long n = count + other.count;
+		double delta = other.mean - mean;
+		m2 += other.m2 + delta * delta * count * other.count / n;
+		mean += delta * other.count / n;
+		count = n;
+		min = Math.min(min, other.min);
+		max = Math.max(max, other.max);
+	}
+
+	private void switchToHistogram() {
+		positives = new TreeMap<Integer, Long>();
+		negatives = new TreeMap<Integer, Long>();
+		for (double val : exact.getRawValues()) {
+			addToHistogram(val, 1);
+		}
+		exact = null;
+	}
+
+	private void addToHistogram(double val, long num) {
+		if (val > MIN_INDEXABLE) {
+			positives.merge(key(val), num, Long::sum);
+		} else if (val < -MIN_INDEXABLE) {
+			negatives.merge(key(-val), num, Long::sum);
+		} else {
+			numZeros += num;
+		}
+	}
+
+	private static void mergeBuckets(Map<Integer, Long> from, Map<Integer, Long> into) {
+		for (Map.Entry<Integer, Long> e : from.entrySet()) {
+			into.merge(e.getKey(), e.getValue(), Long::sum);
+		}
+	}
+
+	private static int key(double absVal) {
+		return (int) Math.ceil(Math.log(absVal) / LOG_GAMMA);
+	}
+
+	private static double value(int key) {
+		// the value with the smallest relative error for the whole bucket
+		return 2 * Math.pow(GAMMA, key) / (GAMMA + 1);
+	}
+
+	public boolean hasData() {
+		return count > 0;
+	}
+
+	public long getNumValues() {
+		return count;
+	}
+
+	public double getMean() {
+		return exact != null ? exact.getMean() : mean;
+	}
+
+	public double getVariance() {
+		return count > 1 ? m2 / (count - 1) : 0;
+	}
+
+	public double getStdDev() {
+		return Math.sqrt(getVariance());
+	}
+
+	public double getMin() {
+		return min;
+	}
+
+	public double getMax() {
+		return max;
+	}
+
+	public boolean isExact() {
+		return exact != null;
+	}
+
+	/**
+	 * @param q
+	 *            quantile between 0 and 1, e.g., 0.5 for the median
+	 */
+	public double getQuantile(double q) {
+		Asserts.assertTrue(hasData());
+		Asserts.assertTrue(q >= 0 && q <= 1);
+		if (exact != null) {
+			return exact.getPercentil((int) Math.round(q * 100));
+		}
+		double rank = q * (count - 1);
+		long seen = 0;
+		for (Map.Entry<Integer, Long> e : negatives.descendingMap().entrySet()) {
+			seen += e.getValue();
+			if (seen > rank) {
+				return clamp(-value(e.getKey()));
+			}
+		}
+		seen += numZeros;
+		if (seen > rank) {
+			return clamp(0);
+		}
+		for (Map.Entry<Integer, Long> e : positives.entrySet()) {
+			seen += e.getValue();
+			if (seen > rank) {
+				return clamp(value(e.getKey()));
+			}
+		}
+		return max;
+	}
+
+	public double getPercentil(int percentile) {
+		return getQuantile(percentile / 100.0);
+	}
+
+	private double clamp(double val) {
+		return Math.max(min, Math.min(max, val));
+	}
+
+	public Boxplot getBoxplot() {
+		if (exact != null) {
+			return exact.getBoxplot();
+		}
+		return new Boxplot((int) Math.min(count, Integer.MAX_VALUE), mean, min, getQuantile(0.25),
+				getQuantile(0.5), getQuantile(0.75), max);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (!(obj instanceof StatsAccumulator)) {
+			return false;
+		}
+		StatsAccumulator other = (StatsAccumulator) obj;
+		if (count != other.count) {
+			return false;
+		}
+		return count == 0 || getBoxplot().equals(other.getBoxplot());
+	}
+
+	@Override
+	public int hashCode() {
+		return count == 0 ? 0 : getBoxplot().hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return count == 0 ? "[no values]" : getBoxplot().toString();
+	}
+}
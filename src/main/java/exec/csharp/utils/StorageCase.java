@@ -16,5 +16,5 @@
 package exec.csharp.utils;
 
 public enum StorageCase {
-	MICRO_COMMITS, USAGES, NETWORKS
+	MICRO_COMMITS, USAGES, NETWORKS, CHECKPOINTS
 }
\ No newline at end of file
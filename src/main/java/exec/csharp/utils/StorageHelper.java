@@ -18,6 +18,7 @@ package exec.csharp.utils;
 import static cc.kave.commons.assertions.Asserts.assertNotNull;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.Map;
 
 import com.google.common.collect.Maps;
@@ -25,11 +26,15 @@ import com.google.common.collect.Maps;
 import cc.kave.commons.model.naming.types.ITypeName;
 import cc.kave.commons.utils.io.Directory;
 import cc.kave.commons.utils.io.NestedZipFolders;
+import cc.kave.rsse.calls.usages.Query;
+import exec.validate_evaluation.microcommits.MicroCommit;
 
 public class StorageHelper {
 
 	private final String rootPath;
 	private final Map<StorageCase, String> locations;
+	private final Map<String, TypeManifest> manifests = Maps.newHashMap();
+	private final Map<String, MappedUsageStore> mappedUsages = Maps.newHashMap();
 
 	private String modifier;
 
@@ -42,6 +47,7 @@ public class StorageHelper {
 		locations.put(StorageCase.USAGES, "Usages");
 		locations.put(StorageCase.MICRO_COMMITS, "MicroCommits");
 		locations.put(StorageCase.NETWORKS, "Networks");
+		locations.put(StorageCase.CHECKPOINTS, "Checkpoints");
 		modifier = "";
 	}
 
@@ -55,14 +61,117 @@ public class StorageHelper {
 	}
 
 	public NestedZipFolders<ITypeName> getNestedZipFolder(StorageCase storageCase) {
+		if (storageCase == StorageCase.USAGES) {
+			MappedUsageStore store = getMappedUsages();
+			if (store != null) {
+				return new MappedZipFolders(getPath(storageCase), store);
+			}
+		}
+		TypeManifest manifest = getManifest(storageCase);
+		if (manifest != null) {
+			return new ManifestZipFolders(getPath(storageCase), manifest);
+		}
 		return new NestedZipFolders<ITypeName>(getDirectory(storageCase), ITypeName.class);
 	}
 
+	/**
+	 * @return the (cached) manifest of the store or null, if it has none
+	 */
+	public synchronized TypeManifest getManifest(StorageCase storageCase) {
+		String path = getPath(storageCase);
+		TypeManifest manifest = manifests.get(path);
+		if (manifest != null && !TypeManifest.exists(path)) {
+			// invalidated by a writer of the store
+			manifests.remove(path);
+			manifest = null;
+		}
+		if (manifest == null) {
+			manifest = TypeManifest.read(path);
+			if (manifest != null) {
+				manifests.put(path, manifest);
+			}
+		}
+		return manifest;
+	}
+
+	/**
+	 * (re-)creates the manifest of a type-keyed store, needs to be called
+	 * whenever the contents of the store have changed
+	 */
+	public synchronized TypeManifest writeManifest(StorageCase storageCase) {
+		String path = getPath(storageCase);
+		TypeManifest manifest;
+		switch (storageCase) {
+		case USAGES:
+			manifest = TypeManifest.create(path, Query.class, Query::getType);
+			break;
+		case MICRO_COMMITS:
+			manifest = TypeManifest.create(path, MicroCommit.class, MicroCommit::getType);
+			break;
+		default:
+			throw new IllegalArgumentException("no type-keyed store: " + storageCase);
+		}
+		manifest.write(path);
+		manifests.put(path, manifest);
+		return manifest;
+	}
+
+	/**
+	 * @return the (cached) packed usage store or null, if none has been created
+	 *         or if the zips have changed since it was packed
+	 */
+	public synchronized MappedUsageStore getMappedUsages() {
+		String path = getPath(StorageCase.USAGES);
+		MappedUsageStore store = mappedUsages.get(path);
+		if (store == null && MappedUsageStore.exists(path)) {
+			store = MappedUsageStore.open(path);
+			if (!store.isUpToDate()) {
+				close(store);
+				return null;
+			}
+			mappedUsages.put(path, store);
+		}
+		return store;
+	}
+
+	/**
+	 * (re-)packs the Usages store into a {@link MappedUsageStore}, needs to be
+	 * called whenever the contents of the store have changed
+	 */
+	public synchronized MappedUsageStore writeMappedUsages() {
+		String path = getPath(StorageCase.USAGES);
+		MappedUsageStore old = mappedUsages.remove(path);
+		if (old != null) {
+			close(old);
+		}
+		TypeManifest manifest = getManifest(StorageCase.USAGES);
+		NestedZipFolders<ITypeName> zips = manifest != null ? new ManifestZipFolders(path, manifest)
+				: new NestedZipFolders<ITypeName>(getDirectory(StorageCase.USAGES), ITypeName.class);
+		MappedUsageStore.create(path, zips);
+		return getMappedUsages();
+	}
+
+	private static void close(MappedUsageStore store) {
+		try {
+			store.close();
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * @return a hash of the names, sizes, and modification dates of all zips in
+	 *         the store, which changes whenever the store is regenerated
+	 */
+	public String getFingerprint(StorageCase storageCase) {
+		return ZipFingerprint.of(getPath(storageCase));
+	}
+
 	public Directory getDirectory(StorageCase storageCase) {
 		return new Directory(getPath(storageCase));
 	}
 
-	private String getPath(StorageCase storageCase) {
+	public String getPath(StorageCase storageCase) {
 		String mod = modifier.isEmpty() ? "" : "-" + modifier;
 		return rootPath + locations.get(storageCase) + mod + "/";
 	}
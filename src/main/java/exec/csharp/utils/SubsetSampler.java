@@ -0,0 +1,59 @@
+/*
+ * Copyright 2014 Technische Universität Darmstadt
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package exec.csharp.utils;
+
+import java.util.Random;
+
+import cc.kave.commons.assertions.Asserts;
+
+/**
+ * Floyd's algorithm for drawing a uniformly distributed k-subset of the indices
+ * 0..n-1 with exactly k random numbers. The selection is written in ascending
+ * order into a caller-provided array, so no collections are allocated.
+ */
+public class SubsetSampler {
+
+	private SubsetSampler() {
+	}
+
+	public static void select(Random rnd, int n, int k, int[] out) {
+		Asserts.assertGreaterOrEqual(k, 0);
+		Asserts.assertGreaterOrEqual(n, k);
+		Asserts.assertGreaterOrEqual(out.length, k);
+
+		int size = 0;
+		for (int j = n - k; j < n; j++) {
+			int t = rnd.nextInt(j + 1);
+			int pos = insertionPoint(out, size, t);
+			if (pos < size && out[pos] == t) {
+				// j is larger than all previous selections, append it
+				out[size++] = j;
+			} else {
+				System.arraycopy(out, pos, out, pos + 1, size - pos);
+				out[pos] = t;
+				size++;
+			}
+		}
+	}
+
+	private static int insertionPoint(int[] sorted, int size, int val) {
+		int pos = 0;
+		while (pos < size && sorted[pos] < val) {
+			pos++;
+		}
+		return pos;
+	}
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2014 Technische Universität Darmstadt
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package exec.csharp.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+import org.apache.commons.io.FileUtils;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+
+import cc.kave.commons.model.naming.Names;
+import cc.kave.commons.model.naming.types.ITypeName;
+import cc.kave.commons.utils.io.Directory;
+import cc.kave.commons.utils.io.IReadingArchive;
+
+/**
+ * Persistent index of a type-keyed store that lists, for every type, the zips
+ * that contain its entries, the number of entries and the size of these zips
+ * in bytes. The manifest is written once after the store has been created and
+ * answers key lookups from memory afterwards, without reading the zips again.
+ * It records the {@link ZipFingerprint} of the store and is ignored once the
+ * zips have changed.
+ */
+public class TypeManifest {
+
+	public static final String FILE_NAME = "types.manifest";
+
+	private final Map<ITypeName, Entry> entries = Maps.newLinkedHashMap();
+	private final String fingerprint;
+
+	private TypeManifest(String fingerprint) {
+		this.fingerprint = fingerprint;
+	}
+
+	public String getFingerprint() {
+		return fingerprint;
+	}
+
+	public Set<ITypeName> getTypes() {
+		return Collections.unmodifiableSet(entries.keySet());
+	}
+
+	public boolean hasZips(ITypeName type) {
+		return entries.containsKey(type);
+	}
+
+	public List<String> getZips(ITypeName type) {
+		Entry e = entries.get(type);
+		return e == null ? Lists.newArrayList() : Lists.newArrayList(e.zips);
+	}
+
+	public int getNumEntries(ITypeName type) {
+		Entry e = entries.get(type);
+		return e == null ? 0 : e.numEntries;
+	}
+
+	public long getSizeInBytes(ITypeName type) {
+		Entry e = entries.get(type);
+		return e == null ? 0 : e.sizeInBytes;
+	}
+
+	/**
+	 * Reads every entry of every zip in the store to find the types they
+	 * belong to. Expensive, so it should only be called once after the store
+	 * has been written.
+	 */
+	public static <T> TypeManifest create(String root, Class<T> entryType, Function<T, ITypeName> typeOf) {
+		Directory dir = new Directory(root);
+		Map<String, Entry> entriesById = new TreeMap<String, Entry>();
+		List<String> zips = Lists.newArrayList(dir.findFiles(f -> f.endsWith(".zip")));
+		zips.sort(null);
+		// taken before reading, so concurrent changes make the manifest outdated
+		String fingerprint = ZipFingerprint.of(root, zips);
+		for (String zip : zips) {
+			long zipSize = new File(root, zip).length();
+			try (IReadingArchive ra = dir.getReadingArchive(zip)) {
+				while (ra.hasNext()) {
+					ITypeName type = typeOf.apply(ra.getNext(entryType));
+					Entry e = entriesById.get(type.getIdentifier());
+					if (e == null) {
+						e = new Entry();
+						e.type = type.getIdentifier();
+						entriesById.put(e.type, e);
+					}
+					if (!e.zips.contains(zip)) {
+						e.zips.add(zip);
+						e.sizeInBytes += zipSize;
+					}
+					e.numEntries++;
+				}
+			} catch (IOException e) {
+				throw new RuntimeException(e);
+			}
+		}
+
+		TypeManifest manifest = new TypeManifest(fingerprint);
+		for (Entry e : entriesById.values()) {
+			manifest.entries.put(Names.newType(e.type), e);
+		}
+		return manifest;
+	}
+
+	public static boolean exists(String root) {
+		return new File(root, FILE_NAME).exists();
+	}
+
+	/**
+	 * deletes the manifest, needs to be called before the zips of the store are
+	 * changed
+	 */
+	public static void invalidate(String root) {
+		new File(root, FILE_NAME).delete();
+	}
+
+	/**
+	 * @return the manifest of the store or null, if none has been written, if it
+	 *         cannot be parsed, or if the zips have changed since
+	 */
+	public static TypeManifest read(String root) {
+		File f = new File(root, FILE_NAME);
+		if (!f.exists()) {
+			return null;
+		}
+		Stored stored;
+		try {
+			stored = gson().fromJson(FileUtils.readFileToString(f, StandardCharsets.UTF_8), Stored.class);
+		} catch (IOException | JsonParseException e) {
+			return null;
+		}
+		if (stored == null || stored.entries == null || !ZipFingerprint.of(root).equals(stored.fingerprint)) {
+			return null;
+		}
+		TypeManifest manifest = new TypeManifest(stored.fingerprint);
+		for (Entry e : stored.entries) {
+			manifest.entries.put(Names.newType(e.type), e);
+		}
+		return manifest;
+	}
+
+	public void write(String root) {
+		File f = new File(root, FILE_NAME);
+		File tmp = new File(root, FILE_NAME + ".tmp");
+		try {
+			Stored stored = new Stored();
+			stored.fingerprint = fingerprint;
+			stored.entries = Lists.newArrayList(entries.values());
+			FileUtils.writeStringToFile(tmp, gson().toJson(stored), StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+		f.delete();
+		if (!tmp.renameTo(f)) {
+			throw new RuntimeException("cannot write manifest " + f);
+		}
+	}
+
+	private static Gson gson() {
+		return new GsonBuilder().setPrettyPrinting().create();
+	}
+
+	private static class Stored {
+		private String fingerprint;
+		private List<Entry> entries;
+	}
+
+	private static class Entry {
+		private String type;
+		private List<String> zips = Lists.newArrayList();
+		private int numEntries;
+		private long sizeInBytes;
+	}
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2014 Technische Universität Darmstadt
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package exec.csharp.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import cc.kave.commons.model.naming.types.ITypeName;
+import cc.kave.commons.utils.io.Directory;
+import cc.kave.commons.utils.io.IReadingArchive;
+import cc.kave.rsse.calls.usages.Query;
+
+/**
+ * Maps types to the (sorted) zip files of the Usages store that contain them,
+ * so the usages of one type can be streamed archive by archive. All zips in one
+ * folder contain usages of the same type, so the index is built by peeking at
+ * the first usage of every folder, unless it is provided by a manifest.
+ */
+public class TypeZipIndex {
+
+	private final Directory dir;
+	private final TypeManifest manifest;
+	private Map<ITypeName, List<String>> zipsByType;
+
+	public TypeZipIndex(Directory dir) {
+		this(dir, null);
+	}
+
+	public TypeZipIndex(Directory dir, TypeManifest manifest) {
+		this.dir = dir;
+		this.manifest = manifest;
+	}
+
+	public synchronized List<String> getZips(ITypeName type) {
+		if (manifest != null) {
+			return manifest.getZips(type);
+		}
+		if (zipsByType == null) {
+			zipsByType = buildIndex();
+		}
+		List<String> zips = zipsByType.get(type);
+		return zips == null ? Lists.newArrayList() : zips;
+	}
+
+	private Map<ITypeName, List<String>> buildIndex() {
+		Map<String, List<String>> zipsByFolder = new TreeMap<String, List<String>>();
+		Set<String> zips = dir.findFiles(f -> f.endsWith(".zip"));
+		for (String zip : zips) {
+			String folder = new File(zip).getParent();
+			folder = folder == null ? "" : folder;
+			List<String> folderZips = zipsByFolder.get(folder);
+			if (folderZips == null) {
+				folderZips = Lists.newArrayList();
+				zipsByFolder.put(folder, folderZips);
+			}
+			folderZips.add(zip);
+		}
+
+		Map<ITypeName, List<String>> index = Maps.newHashMap();
+		for (List<String> folderZips : zipsByFolder.values()) {
+			folderZips.sort(null);
+			ITypeName type = findType(folderZips);
+			if (type != null) {
+				index.put(type, folderZips);
+			}
+		}
+		return index;
+	}
+
+	private ITypeName findType(List<String> zips) {
+		for (String zip : zips) {
+			try (IReadingArchive ra = dir.getReadingArchive(zip)) {
+				if (ra.hasNext()) {
+					return ra.getNext(Query.class).getType();
+				}
+			} catch (IOException e) {
+				throw new RuntimeException(e);
+			}
+		}
+		return null;
+	}
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2014 Technische Universität Darmstadt
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package exec.csharp.utils;
+
+import java.util.List;
+import java.util.Set;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.google.common.collect.Sets;
+
+import cc.kave.commons.model.naming.codeelements.IFieldName;
+import cc.kave.commons.model.naming.codeelements.IMethodName;
+import cc.kave.commons.model.naming.types.ITypeName;
+import cc.kave.rsse.calls.usages.CallSite;
+import cc.kave.rsse.calls.usages.DefinitionSite;
+import cc.kave.rsse.calls.usages.Query;
+import cc.kave.rsse.calls.usages.Usage;
+import exec.validate_evaluation.microcommits.MicroCommit;
+
+/**
+ * Replaces the names, call sites, and definition sites of freshly deserialized
+ * usages with canonical instances. The same few thousand names occur millions
+ * of times in the stores, so interning them reduces the heap considerably and
+ * turns most equality checks into identity checks. The pool only holds weak
+ * references, entries that are no longer used anywhere are collected.
+ *
+ * Interned call sites and definition sites are shared between usages, they
+ * must not be modified afterwards.
+ */
+public class UsageInterner {
+
+	private static final UsageInterner SHARED = new UsageInterner();
+
+	private final Interner<ITypeName> types = Interners.newWeakInterner();
+	private final Interner<IMethodName> methods = Interners.newWeakInterner();
+	private final Interner<IFieldName> fields = Interners.newWeakInterner();
+	private final Interner<CallSite> callSites = Interners.newWeakInterner();
+	private final Interner<DefinitionSite> definitionSites = Interners.newWeakInterner();
+
+	/**
+	 * @return the pool that is shared by all readers, so names are canonical
+	 *         across stores
+	 */
+	public static UsageInterner shared() {
+		return SHARED;
+	}
+
+	public ITypeName intern(ITypeName type) {
+		return type == null ? null : types.intern(type);
+	}
+
+	public IMethodName intern(IMethodName method) {
+		return method == null ? null : methods.intern(method);
+	}
+
+	public IFieldName intern(IFieldName field) {
+		return field == null ? null : fields.intern(field);
+	}
+
+	public CallSite intern(CallSite site) {
+		if (site == null) {
+			return null;
+		}
+		site.setMethod(intern(site.getMethod()));
+		return callSites.intern(site);
+	}
+
+	public DefinitionSite intern(DefinitionSite def) {
+		if (def == null) {
+			return null;
+		}
+		def.setMethod(intern(def.getMethod()));
+		def.setField(intern(def.getField()));
+		return definitionSites.intern(def);
+	}
+
+	/**
+	 * interns all parts of the usage in place, instances of NoUsage are
+	 * returned unchanged
+	 */
+	public Usage intern(Usage u) {
+		if (!(u instanceof Query)) {
+			return u;
+		}
+		Query q = (Query) u;
+		q.setType(intern(q.getType()));
+		q.setClassContext(intern(q.getClassContext()));
+		q.setMethodContext(intern(q.getMethodContext()));
+		q.setDefinition(intern(q.getDefinitionSite()));
+		Set<CallSite> sites = Sets.newLinkedHashSet();
+		for (CallSite site : q.getAllCallsites()) {
+			sites.add(intern(site));
+		}
+		q.setAllCallsites(sites);
+		return q;
+	}
+
+	public MicroCommit intern(MicroCommit mc) {
+		intern(mc.getStart());
+		intern(mc.getEnd());
+		return mc;
+	}
+
+	/**
+	 * interns all usages of the list in place
+	 */
+	public <T extends Usage> List<T> internUsages(List<T> usages) {
+		for (T u : usages) {
+			intern(u);
+		}
+		return usages;
+	}
+
+	/**
+	 * interns all micro commits of the list in place
+	 */
+	public List<MicroCommit> internMicroCommits(List<MicroCommit> commits) {
+		for (MicroCommit mc : commits) {
+			intern(mc);
+		}
+		return commits;
+	}
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2014 Technische Universität Darmstadt
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package exec.csharp.utils;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+
+import com.google.common.collect.Lists;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+import cc.kave.commons.utils.io.Directory;
+
+/**
+ * Hash of the names, sizes, and modification dates of all zips in a store.
+ * Files that are derived from a store record its fingerprint, so they can be
+ * recognized as outdated once the zips have been regenerated.
+ */
+public class ZipFingerprint {
+
+	private ZipFingerprint() {
+	}
+
+	public static String of(String root) {
+		if (!new File(root).exists()) {
+			return of(root, Lists.newArrayList());
+		}
+		return of(root, new Directory(root).findFiles(f -> f.endsWith(".zip")));
+	}
+
+	/**
+	 * @param zips
+	 *            all zips of the store, relative to root
+	 */
+	public static String of(String root, Collection<String> zips) {
+		List<String> sorted = Lists.newArrayList(zips);
+		sorted.sort(null);
+		Hasher h = Hashing.sha1().newHasher();
+		for (String zip : sorted) {
+			File f = new File(root, zip);
+			h.putString(zip, StandardCharsets.UTF_8).putLong(f.length()).putLong(f.lastModified());
+		}
+		return h.hash().toString();
+	}
+}
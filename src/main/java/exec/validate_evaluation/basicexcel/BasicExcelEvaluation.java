@@ -31,7 +31,6 @@ import cc.kave.commons.evaluation.Measure;
 import cc.kave.commons.model.naming.codeelements.IMethodName;
 import cc.kave.commons.model.naming.types.ITypeName;
 import cc.kave.commons.utils.io.NestedZipFolders;
-import cc.kave.rsse.calls.ICallsRecommender;
 import cc.kave.rsse.calls.datastructures.Tuple;
 import cc.kave.rsse.calls.usages.CallSite;
 import cc.kave.rsse.calls.usages.DefinitionSites;
@@ -42,11 +41,13 @@ import exec.csharp.queries.IQueryBuilder;
 import exec.csharp.queries.QueryBuilderFactory;
 import exec.csharp.queries.QueryMode;
 import exec.csharp.utils.ModelHelper;
+import exec.csharp.utils.ProposalCache;
 import exec.csharp.utils.QueryUtils;
 import exec.csharp.utils.StorageCase;
 import exec.csharp.utils.StorageHelper;
 import exec.validate_evaluation.microcommits.MicroCommit;
 import exec.validate_evaluation.microcommits.MicroCommitIo;
+import exec.validate_evaluation.microcommits.MicroCommitTypeIndex;
 
 public class BasicExcelEvaluation {
 
@@ -55,7 +56,7 @@ public class BasicExcelEvaluation {
 	private QueryBuilderFactory qbf;
 	private NestedZipFolders<ITypeName> usages;
 	private IQueryBuilder<Usage, Query> qb;
-	private ICallsRecommender<Query> rec;
+	private ProposalCache proposalCache;
 
 	@Inject
 	public BasicExcelEvaluation(StorageHelper storageHelper, MicroCommitIo mcIo, ModelHelper mh,
@@ -78,8 +79,9 @@ public class BasicExcelEvaluation {
 			res.put(mode, new BoxplotData());
 		}
 
-		System.out.printf("\ninitializing nested .zip folder for types/usages... (%s)\n", new Date());
-		Set<ITypeName> types = usages.findKeys();
+		System.out.printf("\nreading micro commits and indexing their types... (%s)\n", new Date());
+		MicroCommitTypeIndex index = readAllCommits();
+		Set<ITypeName> types = index.getTypesWithUsages(usages);
 		// Set<ICoReTypeName> types =
 		// Sets.newHashSet(CoReTypeName.get("LSystem/IO/MemoryStream"));
 		for (ITypeName type : types) {
@@ -88,9 +90,9 @@ public class BasicExcelEvaluation {
 				continue;
 			}
 			typeUsageCounts.put(type, us.size());
-			rec = mh.get(type);
+			proposalCache = new ProposalCache(mh.get(type));
 
-			for (String zip : mcIo.findZips()) {
+			for (String zip : index.getZips(type)) {
 
 				// System.out.println("mode\tcategory\tf1");
 
@@ -211,14 +213,17 @@ public class BasicExcelEvaluation {
 		}
 	}
 
-	private Map<String, List<MicroCommit>> allCommits = Maps.newHashMap();
+	private Map<String, List<MicroCommit>> allCommits = Maps.newLinkedHashMap();
+
+	private MicroCommitTypeIndex readAllCommits() {
+		for (String zip : mcIo.findZips()) {
+			allCommits.put(zip, mcIo.read(zip));
+		}
+		return MicroCommitTypeIndex.create(allCommits);
+	}
 
 	private List<MicroCommit> readCommits(String zip, ITypeName type) {
 		List<MicroCommit> commits = allCommits.get(zip);
-		if (commits == null) {
-			commits = mcIo.read(zip);
-			allCommits.put(zip, commits);
-		}
 
 		List<MicroCommit> byType = Lists.newLinkedList();
 		for (MicroCommit c : commits) {
@@ -245,7 +250,7 @@ public class BasicExcelEvaluation {
 		List<Query> queries = qb.createQueries(sstart, send);
 		BoxplotData res = new BoxplotData();
 		for (Query q : queries) {
-			Set<IMethodName> proposals = getProposals(rec, q);
+			Set<IMethodName> proposals = proposalCache.getProposals(q);
 			Set<IMethodName> expectation = getExpectation(q, end);
 			double f1 = Measure.newMeasure(expectation, proposals).getF1();
 			res.add(f1);
@@ -277,12 +282,4 @@ public class BasicExcelEvaluation {
 		}
 		return expectation;
 	}
-
-	private Set<IMethodName> getProposals(ICallsRecommender<Query> rec, Query query) {
-		Set<IMethodName> proposals = Sets.newHashSet();
-		for (Tuple<IMethodName, Double> p : rec.query(query)) {
-			proposals.add(p.getFirst());
-		}
-		return proposals;
-	}
 }
\ No newline at end of file
@@ -15,6 +15,7 @@
  */
 package exec.validate_evaluation.categorized;
 
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -28,8 +29,6 @@ import cc.kave.commons.evaluation.Measure;
 import cc.kave.commons.model.naming.codeelements.IMethodName;
 import cc.kave.commons.model.naming.types.ITypeName;
 import cc.kave.commons.utils.io.NestedZipFolders;
-import cc.kave.rsse.calls.ICallsRecommender;
-import cc.kave.rsse.calls.datastructures.Tuple;
 import cc.kave.rsse.calls.usages.CallSite;
 import cc.kave.rsse.calls.usages.DefinitionSites;
 import cc.kave.rsse.calls.usages.NoUsage;
@@ -38,7 +37,11 @@ import cc.kave.rsse.calls.usages.Usage;
 import exec.csharp.queries.IQueryBuilder;
 import exec.csharp.queries.QueryBuilderFactory;
 import exec.csharp.queries.QueryMode;
+import exec.csharp.utils.EvaluationCheckpoints;
 import exec.csharp.utils.ModelHelper;
+import exec.csharp.utils.ProposalCache;
+import exec.csharp.utils.Shard;
+import exec.csharp.utils.StatsAccumulator;
 import exec.validate_evaluation.microcommits.MicroCommit;
 
 public abstract class CategorizedEvaluation<Category> {
@@ -49,7 +52,13 @@ public abstract class CategorizedEvaluation<Category> {
 	private ModelHelper mh;
 	private QueryBuilderFactory qbf;
 	private IQueryBuilder<Usage, Query> qb;
-	private ICallsRecommender<Query> rec;
+	private ProposalCache proposalCache;
+
+	private EvaluationCheckpoints checkpoints;
+	private ITypeName currentType;
+	private Iterator<Double> replayedF1s;
+	private List<Double> recordedF1s;
+	private Shard shard = Shard.all();
 
 	public CategorizedEvaluation(NestedZipFolders<ITypeName> usages, ModelHelper mh, MicroCommitIoExtension mcIo,
 			CategorizedEvaluationLogger<Category> log, QueryBuilderFactory qbf) {
@@ -60,20 +69,34 @@ public abstract class CategorizedEvaluation<Category> {
 		this.qbf = qbf;
 	}
 
+	public void setCheckpoints(EvaluationCheckpoints checkpoints) {
+		this.checkpoints = checkpoints;
+	}
+
+	public void setShard(Shard shard) {
+		this.shard = shard;
+	}
+
 	public void run() {
 
-		Map<QueryMode, BoxplotData> resByMode = Maps.newHashMap();
+		Map<QueryMode, StatsAccumulator> resByMode = Maps.newHashMap();
 		Map<QueryMode, CategorizedResults<Category>> allResUnmerged = Maps.newHashMap();
 		Map<QueryMode, List<CategorizedResults<Category>>> allRes = Maps.newHashMap();
 
-		Set<ITypeName> keys = usages.findKeys();
+		// only types that occur in the micro commits need a trained model
+		Set<ITypeName> keys = shard.filter(mcIo.findTypesWithUsages(usages));
 		log.foundTypes(keys.size());
 		// ICoReTypeName[] keys = new ICoReTypeName[] {
 		// CoReTypeName.get("LSystem/Enum"),
 		// CoReTypeName.get("LSystem/Text/StringBuilder") };
 		for (ITypeName type : keys) {
 			log.type(type);
-			rec = mh.get(type);
+			currentType = type;
+			// finished types are replayed from their checkpoint without a model
+			List<Double> storedF1s = checkpoints == null ? null : checkpoints.read(type);
+			replayedF1s = storedF1s == null ? null : storedF1s.iterator();
+			recordedF1s = Lists.newArrayList();
+			proposalCache = replayedF1s == null ? new ProposalCache(mh.get(type)) : null;
 
 			for (String user : mcIo.findZipsWith(type)) {
 				log.user(user);
@@ -90,6 +113,12 @@ public abstract class CategorizedEvaluation<Category> {
 					}
 				}
 			}
+
+			if (replayedF1s != null) {
+				EvaluationCheckpoints.assertReplayFinished(replayedF1s, type);
+			} else if (checkpoints != null) {
+				checkpoints.store(type, recordedF1s);
+			}
 		}
 
 		log.done(allRes);
@@ -97,10 +126,10 @@ public abstract class CategorizedEvaluation<Category> {
 		log.doneByMode(resByMode);
 	}
 
-	private BoxplotData getResult2(Map<QueryMode, BoxplotData> resByMode, QueryMode mode) {
-		BoxplotData bpd = resByMode.get(mode);
+	private StatsAccumulator getResult2(Map<QueryMode, StatsAccumulator> resByMode, QueryMode mode) {
+		StatsAccumulator bpd = resByMode.get(mode);
 		if (bpd == null) {
-			bpd = new BoxplotData();
+			bpd = new StatsAccumulator();
 			resByMode.put(mode, bpd);
 		}
 		return bpd;
@@ -131,7 +160,7 @@ public abstract class CategorizedEvaluation<Category> {
 	}
 
 	private void evaluate(List<MicroCommit> mcs, CategorizedResults<Category> res,
-			CategorizedResults<Category> resUnmerged, BoxplotData resByMode) {
+			CategorizedResults<Category> resUnmerged, StatsAccumulator resByMode) {
 
 		for (MicroCommit mc : mcs) {
 			log.microCommit();
@@ -139,7 +168,7 @@ public abstract class CategorizedEvaluation<Category> {
 			Usage end = mc.getEnd();
 
 			Category c = getCategory(mc);
-			double f1 = shouldEvaluate(c) ? measurePredictionQuality(start, end) : 0;
+			double f1 = shouldEvaluate(c) ? getF1(start, end) : 0;
 			res.add(c, f1);
 			resUnmerged.add(c, f1);
 			if (shouldEvaluate(c)) {
@@ -151,13 +180,22 @@ public abstract class CategorizedEvaluation<Category> {
 
 	protected abstract boolean shouldEvaluate(Category c);
 
+	private double getF1(Usage start, Usage end) {
+		if (replayedF1s != null) {
+			return EvaluationCheckpoints.nextReplayed(replayedF1s, currentType);
+		}
+		double f1 = measurePredictionQuality(start, end);
+		recordedF1s.add(f1);
+		return f1;
+	}
+
 	private double measurePredictionQuality(Usage start, Usage end) {
 		Usage sstart = safe(start, end);
 		Usage send = safe(end, start);
 		List<Query> queries = qb.createQueries(sstart, send);
 		BoxplotData res = new BoxplotData();
 		for (Query q : queries) {
-			Set<IMethodName> proposals = getProposals(rec, q);
+			Set<IMethodName> proposals = proposalCache.getProposals(q);
 			Set<IMethodName> expectation = getExpectation(q, end);
 			double f1 = Measure.newMeasure(expectation, proposals).getF1();
 			res.add(f1);
@@ -190,13 +228,5 @@ public abstract class CategorizedEvaluation<Category> {
 		return expectation;
 	}
 
-	private Set<IMethodName> getProposals(ICallsRecommender<Query> rec, Query query) {
-		Set<IMethodName> proposals = Sets.newHashSet();
-		for (Tuple<IMethodName, Double> p : rec.query(query)) {
-			proposals.add(p.getFirst());
-		}
-		return proposals;
-	}
-
 	protected abstract Category getCategory(MicroCommit mc);
 }
\ No newline at end of file
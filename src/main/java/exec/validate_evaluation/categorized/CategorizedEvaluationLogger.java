@@ -25,9 +25,9 @@ import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 
 import cc.kave.commons.evaluation.Boxplot;
-import cc.kave.commons.evaluation.BoxplotData;
 import cc.kave.commons.model.naming.types.ITypeName;
 import exec.csharp.queries.QueryMode;
+import exec.csharp.utils.StatsAccumulator;
 
 public class CategorizedEvaluationLogger<Category> {
 
@@ -171,7 +171,7 @@ public class CategorizedEvaluationLogger<Category> {
 		return new CategorizedEvaluationLogger<T>();
 	}
 
-	public void doneByMode(Map<QueryMode, BoxplotData> resByMode) {
+	public void doneByMode(Map<QueryMode, StatsAccumulator> resByMode) {
 		System.out.println("averaged over all commits:");
 		for (QueryMode mode : resByMode.keySet()) {
 			Boxplot bp = resByMode.get(mode).getBoxplot();
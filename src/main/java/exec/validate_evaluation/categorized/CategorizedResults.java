@@ -26,11 +26,11 @@ import com.google.common.collect.Maps;
 
 import cc.kave.commons.assertions.Asserts;
 import cc.kave.commons.evaluation.Boxplot;
-import cc.kave.commons.evaluation.BoxplotData;
+import exec.csharp.utils.StatsAccumulator;
 
 public class CategorizedResults<T> {
 
-	private Map<T, BoxplotData> categories = Maps.newHashMap();
+	private Map<T, StatsAccumulator> categories = Maps.newHashMap();
 
 	public Set<T> getCategories() {
 		return categories.keySet();
@@ -42,9 +42,9 @@ public class CategorizedResults<T> {
 	}
 
 	public void add(T category, double val) {
-		BoxplotData bpd = categories.get(category);
+		StatsAccumulator bpd = categories.get(category);
 		if (bpd == null) {
-			bpd = new BoxplotData();
+			bpd = new StatsAccumulator();
 			categories.put(category, bpd);
 		}
 		bpd.add(val);
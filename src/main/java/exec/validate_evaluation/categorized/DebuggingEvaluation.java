@@ -26,8 +26,6 @@ import cc.kave.commons.evaluation.Measure;
 import cc.kave.commons.model.naming.codeelements.IMethodName;
 import cc.kave.commons.model.naming.types.ITypeName;
 import cc.kave.commons.utils.io.NestedZipFolders;
-import cc.kave.rsse.calls.ICallsRecommender;
-import cc.kave.rsse.calls.datastructures.Tuple;
 import cc.kave.rsse.calls.usages.CallSite;
 import cc.kave.rsse.calls.usages.DefinitionSites;
 import cc.kave.rsse.calls.usages.NoUsage;
@@ -38,6 +36,7 @@ import exec.csharp.queries.IQueryBuilder;
 import exec.csharp.queries.QueryBuilderFactory;
 import exec.csharp.queries.QueryMode;
 import exec.csharp.utils.ModelHelper;
+import exec.csharp.utils.ProposalCache;
 import exec.csharp.utils.NoiseMode;
 import exec.csharp.utils.QueryJudge;
 import exec.csharp.utils.QueryUtils;
@@ -49,7 +48,7 @@ public class DebuggingEvaluation {
 	private ModelHelper mh;
 	private QueryBuilderFactory qbf;
 	private IQueryBuilder<Usage, Query> qb;
-	private ICallsRecommender<Query> rec;
+	private ProposalCache proposalCache;
 
 	public DebuggingEvaluation(NestedZipFolders<ITypeName> usages, ModelHelper mh, MicroCommitIoExtension mcIo,
 			QueryBuilderFactory qbf) {
@@ -61,12 +60,13 @@ public class DebuggingEvaluation {
 
 	public void run() {
 
-		Set<ITypeName> keys = usages.findKeys();
+		// only types that occur in the micro commits need a trained model
+		Set<ITypeName> keys = mcIo.findTypesWithUsages(usages);
 		// ICoReTypeName[] keys = new ICoReTypeName[] {
 		// CoReTypeName.get("LSystem/Enum"),
 		// CoReTypeName.get("LSystem/Text/StringBuilder") };
 		for (ITypeName type : keys) {
-			rec = mh.get(type);
+			proposalCache = new ProposalCache(mh.get(type));
 
 			for (String user : mcIo.findZipsWith(type)) {
 				for (List<MicroCommit> mcs : mcIo.readZipAndSortByLocation(user, type)) {
@@ -135,7 +135,7 @@ public class DebuggingEvaluation {
 		for (Query q : queries) {
 			printQuery(q, isFirst);
 			isFirst = false;
-			Set<IMethodName> proposals = getProposals(rec, q);
+			Set<IMethodName> proposals = proposalCache.getProposals(q);
 			Set<IMethodName> expectation = getExpectation(q, end);
 			double f1 = Measure.newMeasure(expectation, proposals).getF1();
 			printIntermediateF1(f1);
@@ -197,12 +197,4 @@ public class DebuggingEvaluation {
 		}
 		return expectation;
 	}
-
-	private Set<IMethodName> getProposals(ICallsRecommender<Query> rec, Query query) {
-		Set<IMethodName> proposals = Sets.newHashSet();
-		for (Tuple<IMethodName, Double> p : rec.query(query)) {
-			proposals.add(p.getFirst());
-		}
-		return proposals;
-	}
 }
\ No newline at end of file
@@ -25,12 +25,17 @@ import com.google.common.collect.Sets;
 
 import cc.kave.commons.model.naming.codeelements.IMethodName;
 import cc.kave.commons.model.naming.types.ITypeName;
+import cc.kave.commons.utils.io.NestedZipFolders;
 import exec.validate_evaluation.microcommits.MicroCommit;
 import exec.validate_evaluation.microcommits.MicroCommitIo;
+import exec.validate_evaluation.microcommits.MicroCommitTypeIndex;
 
 public class MicroCommitIoExtension {
 
-	private Map<String, List<MicroCommit>> contents = Maps.newHashMap();
+	// zips and locations are visited in a fixed order, so stored results can be
+	// replayed by position
+	private Map<String, List<MicroCommit>> contents = Maps.newTreeMap();
+	private MicroCommitTypeIndex index;
 
 	public MicroCommitIoExtension(MicroCommitIo io) {
 		Set<String> zips = io.findZips();
@@ -40,23 +45,23 @@ public class MicroCommitIoExtension {
 			System.out.printf(".");
 		}
 		System.out.println();
+		index = MicroCommitTypeIndex.create(contents);
+	}
+
+	public Set<ITypeName> findTypes() {
+		return index.getTypes();
+	}
+
+	public Set<ITypeName> findTypesWithUsages(NestedZipFolders<ITypeName> usages) {
+		return index.getTypesWithUsages(usages);
 	}
 
 	public List<String> findZipsWith(ITypeName type) {
-		List<String> zips = Lists.newLinkedList();
-		zipLoop: for (String zip : contents.keySet()) {
-			for (MicroCommit mc : contents.get(zip)) {
-				if (type.equals(mc.getType())) {
-					zips.add(zip);
-					continue zipLoop;
-				}
-			}
-		}
-		return zips;
+		return Lists.newLinkedList(index.getZips(type));
 	}
 
 	public Set<List<MicroCommit>> readZipAndSortByLocation(String zip, ITypeName type) {
-		Map<IMethodName, List<MicroCommit>> locations = Maps.newHashMap();
+		Map<IMethodName, List<MicroCommit>> locations = Maps.newLinkedHashMap();
 		for (MicroCommit mc : contents.get(zip)) {
 			if (type.equals(mc.getType())) {
 				IMethodName ctx = mc.getMethodContext();
@@ -68,6 +73,6 @@ public class MicroCommitIoExtension {
 				mcs.add(mc);
 			}
 		}
-		return Sets.newHashSet(locations.values());
+		return Sets.newLinkedHashSet(locations.values());
 	}
 }
\ No newline at end of file
@@ -30,14 +30,13 @@ import cc.kave.commons.evaluation.Measure;
 import cc.kave.commons.model.naming.codeelements.IMethodName;
 import cc.kave.commons.model.naming.types.ITypeName;
 import cc.kave.commons.utils.io.NestedZipFolders;
-import cc.kave.rsse.calls.ICallsRecommender;
-import cc.kave.rsse.calls.datastructures.Tuple;
 import cc.kave.rsse.calls.usages.CallSite;
 import cc.kave.rsse.calls.usages.DefinitionSites;
 import cc.kave.rsse.calls.usages.NoUsage;
 import cc.kave.rsse.calls.usages.Query;
 import cc.kave.rsse.calls.usages.Usage;
 import exec.csharp.utils.ModelHelper;
+import exec.csharp.utils.ProposalCache;
 import exec.validate_evaluation.queryhistory.QueryHistoryIo;
 
 public class GreedyAndEndGoalEval {
@@ -77,7 +76,7 @@ public class GreedyAndEndGoalEval {
 			System.out.printf("### %s ###\n", type);
 
 			System.out.println("learning recommender...");
-			ICallsRecommender<Query> rec = mh.get(type);
+			ProposalCache proposalCache = new ProposalCache(mh.get(type));
 
 			System.out.printf("eval: ");
 			for (List<Usage> hist : histories.get(type)) {
@@ -91,11 +90,11 @@ public class GreedyAndEndGoalEval {
 					Usage goalExpectation = hist.get(lastIdx);
 
 					if (shouldProcess(query, greedyExpectation)) {
-						bpdGreedy.add(measurePredictionQuality(rec, query, greedyExpectation));
+						bpdGreedy.add(measurePredictionQuality(proposalCache, query, greedyExpectation));
 					}
 
 					if (shouldProcess(query, goalExpectation)) {
-						bpdGoal.add(measurePredictionQuality(rec, query, goalExpectation));
+						bpdGoal.add(measurePredictionQuality(proposalCache, query, goalExpectation));
 					}
 				}
 			}
@@ -157,10 +156,10 @@ public class GreedyAndEndGoalEval {
 		return numCallsStart < numCallsEnd;
 	}
 
-	private double measurePredictionQuality(ICallsRecommender<Query> rec, Usage start, Usage end) {
+	private double measurePredictionQuality(ProposalCache proposalCache, Usage start, Usage end) {
 		Usage sstart = safe(start, end);
 		Usage send = safe(end, start);
-		Set<IMethodName> proposals = getProposals(rec, (Query) sstart);
+		Set<IMethodName> proposals = proposalCache.getProposals((Query) sstart);
 		Set<IMethodName> expectation = getExpectation(sstart, send);
 		double f1 = Measure.newMeasure(expectation, proposals).getF1();
 		return f1;
@@ -191,14 +190,6 @@ public class GreedyAndEndGoalEval {
 		return expectation;
 	}
 
-	private Set<IMethodName> getProposals(ICallsRecommender<Query> rec, Query query) {
-		Set<IMethodName> proposals = Sets.newHashSet();
-		for (Tuple<IMethodName, Double> p : rec.query(query)) {
-			proposals.add(p.getFirst());
-		}
-		return proposals;
-	}
-
 	public static void main(String[] args) {
 		double[] a = new double[] { 1, 2, 3, 2, 2, 2, 2 };
 		double[] b = new double[] { 2, 3.1, 4, 3, 3, 3, 3, 3 };
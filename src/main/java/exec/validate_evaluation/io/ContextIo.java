@@ -15,7 +15,9 @@
  */
 package exec.validate_evaluation.io;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.List;
 import java.util.Set;
 
 import com.google.common.collect.Sets;
@@ -28,17 +30,30 @@ import cc.kave.commons.utils.io.WritingArchive;
 public class ContextIo {
 
 	private String root;
+	private ParallelArchiveReader parallelReader;
 
 	public ContextIo(String root) {
 		this.root = root;
 	}
 
+	/**
+	 * decode the entries of (large) zips with a pool of workers, null reads
+	 * them sequentially
+	 */
+	public void setParallelReader(ParallelArchiveReader parallelReader) {
+		this.parallelReader = parallelReader;
+	}
+
 	public Set<String> findZips() {
 		Directory dir = new Directory(this.root);
 		return dir.findFiles(s -> s.endsWith(".zip"));
 	}
 
 	public Set<Context> read(String zip) {
+		if (parallelReader != null) {
+			List<Context> contexts = parallelReader.read(new File(root, zip), Context.class);
+			return Sets.newLinkedHashSet(contexts);
+		}
 		Set<Context> contexts = Sets.newLinkedHashSet();
 		Directory dir = new Directory(this.root);
 
@@ -0,0 +1,183 @@
+/**
+ * Copyright 2016 Technische Universität Darmstadt
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package exec.validate_evaluation.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.apache.commons.io.IOUtils;
+
+import com.google.common.collect.Lists;
+
+import cc.kave.commons.assertions.Asserts;
+import cc.kave.commons.utils.io.json.JsonSerialization;
+
+/**
+ * Reads all entries of a zip archive in parallel. The calling thread inflates
+ * the raw entries one after another and a pool of workers deserializes them.
+ * The number of inflated entries that wait for a worker is bounded, so large
+ * archives are never held twice in memory.
+ */
+public class ParallelArchiveReader {
+
+	private static final int MAX_PENDING_PER_THREAD = 16;
+
+	private final int numThreads;
+	private final boolean keepOrder;
+
+	/**
+	 * @param keepOrder
+	 *            if true, the entries are returned in archive order, otherwise
+	 *            in the order in which their deserialization finished
+	 */
+	public ParallelArchiveReader(int numThreads, boolean keepOrder) {
+		Asserts.assertGreaterOrEqual(numThreads, 1);
+		this.numThreads = numThreads;
+		this.keepOrder = keepOrder;
+	}
+
+	public static ParallelArchiveReader forAllCores(boolean keepOrder) {
+		return new ParallelArchiveReader(Runtime.getRuntime().availableProcessors(), keepOrder);
+	}
+
+	public int getNumThreads() {
+		return numThreads;
+	}
+
+	public boolean keepsOrder() {
+		return keepOrder;
+	}
+
+	public <T> List<T> read(File zip, Type type) {
+		return read(zip, json -> JsonSerialization.deserialize(json, type));
+	}
+
+	public <T> List<T> read(File zip, Function<String, T> decoder) {
+		try (ZipFile zf = new ZipFile(zip)) {
+			if (numThreads == 1) {
+				List<T> entries = Lists.newLinkedList();
+				for (String json : iterate(zf)) {
+					entries.add(decoder.apply(json));
+				}
+				return entries;
+			}
+			return readInParallel(zf, decoder);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private <T> List<T> readInParallel(ZipFile zf, Function<String, T> decoder) {
+		ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+		try {
+			Semaphore pending = new Semaphore(numThreads * MAX_PENDING_PER_THREAD);
+			CompletionService<T> completion = new ExecutorCompletionService<T>(executor);
+			List<Future<T>> futures = Lists.newLinkedList();
+			for (String json : iterate(zf)) {
+				pending.acquire();
+				futures.add(completion.submit(() -> {
+					try {
+						return decoder.apply(json);
+					} finally {
+						pending.release();
+					}
+				}));
+			}
+
+			List<T> entries = Lists.newArrayListWithCapacity(futures.size());
+			if (keepOrder) {
+				for (Future<T> f : futures) {
+					entries.add(f.get());
+				}
+			} else {
+				for (int i = 0; i < futures.size(); i++) {
+					entries.add(completion.take().get());
+				}
+			}
+			return entries;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException(e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static Iterable<String> iterate(ZipFile zf) {
+		// entries are inflated lazily, while the workers are busy
+		return () -> new EntryIterator(zf);
+	}
+
+	private static class EntryIterator implements Iterator<String> {
+		private final ZipFile zf;
+		private final Enumeration<? extends ZipEntry> entries;
+		private ZipEntry next;
+
+		private EntryIterator(ZipFile zf) {
+			this.zf = zf;
+			entries = zf.entries();
+			next = advance();
+		}
+
+		@Override
+		public boolean hasNext() {
+			return next != null;
+		}
+
+		@Override
+		public String next() {
+			if (next == null) {
+				throw new NoSuchElementException();
+			}
+			ZipEntry e = next;
+			next = advance();
+			try (InputStream in = zf.getInputStream(e)) {
+				return IOUtils.toString(in, StandardCharsets.UTF_8);
+			} catch (IOException ex) {
+				throw new RuntimeException(ex);
+			}
+		}
+
+		private ZipEntry advance() {
+			while (entries.hasMoreElements()) {
+				ZipEntry e = entries.nextElement();
+				if (!e.isDirectory()) {
+					return e;
+				}
+			}
+			return null;
+		}
+	}
+}
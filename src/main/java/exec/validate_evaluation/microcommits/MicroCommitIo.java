@@ -15,6 +15,7 @@
  */
 package exec.validate_evaluation.microcommits;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.List;
 import java.util.Set;
@@ -24,20 +25,39 @@ import com.google.common.collect.Lists;
 import cc.kave.commons.utils.io.Directory;
 import cc.kave.commons.utils.io.IReadingArchive;
 import cc.kave.commons.utils.io.WritingArchive;
+import cc.kave.commons.utils.io.json.JsonSerialization;
+import exec.csharp.utils.ColumnarCodec;
+import exec.csharp.utils.TypeManifest;
+import exec.csharp.utils.UsageInterner;
+import exec.validate_evaluation.io.ParallelArchiveReader;
 
 public class MicroCommitIo {
 	private String root;
+	private ParallelArchiveReader parallelReader;
+	// the whole corpus is often kept in memory, so all names are shared
+	private final UsageInterner interner = UsageInterner.shared();
 
 	public MicroCommitIo(String dir) {
 		this.root = dir;
 	}
 
+	/**
+	 * decode the entries of (large) zips with a pool of workers, null reads
+	 * them sequentially
+	 */
+	public void setParallelReader(ParallelArchiveReader parallelReader) {
+		this.parallelReader = parallelReader;
+	}
+
 	public Set<String> findZips() {
 		Directory dir = new Directory(this.root);
 		return dir.findFiles(s -> s.endsWith(".zip"));
 	}
 
 	public void store(List<MicroCommit> commits, String zip) {
+		// an outdated binary copy would shadow the new contents
+		ColumnarCodec.getFile(root, zip).delete();
+		TypeManifest.invalidate(root);
 		Directory dir = new Directory(this.root);
 		try (WritingArchive wa = dir.getWritingArchive(zip)) {
 			for (MicroCommit mc : commits) {
@@ -49,12 +69,21 @@ public class MicroCommitIo {
 	}
 
 	public List<MicroCommit> read(String zip) {
+		File columnar = ColumnarCodec.getFile(root, zip);
+		if (ColumnarCodec.isUpToDate(columnar)) {
+			return interner.internMicroCommits(ColumnarCodec.readMicroCommits(columnar));
+		}
+		if (parallelReader != null) {
+			return parallelReader.read(new File(root, zip),
+					json -> interner.intern(JsonSerialization.<MicroCommit> deserialize(json, MicroCommit.class)));
+		}
+
 		List<MicroCommit> commits = Lists.newLinkedList();
 		Directory dir = new Directory(this.root);
 
 		try (IReadingArchive ra = dir.getReadingArchive(zip)) {
 			while (ra.hasNext()) {
-				commits.add(ra.getNext(MicroCommit.class));
+				commits.add(interner.intern(ra.getNext(MicroCommit.class)));
 			}
 		} catch (IOException e) {
 			throw new RuntimeException(e);
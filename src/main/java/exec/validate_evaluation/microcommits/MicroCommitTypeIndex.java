@@ -0,0 +1,71 @@
+/**
+ * Copyright 2016 Technische Universität Darmstadt
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package exec.validate_evaluation.microcommits;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import cc.kave.commons.model.naming.types.ITypeName;
+import cc.kave.commons.utils.io.NestedZipFolders;
+
+public class MicroCommitTypeIndex {
+
+	private final Map<ITypeName, Set<String>> zipsByType = Maps.newLinkedHashMap();
+
+	public void add(String zip, MicroCommit mc) {
+		ITypeName type = mc.getType();
+		Set<String> zips = zipsByType.get(type);
+		if (zips == null) {
+			zips = Sets.newLinkedHashSet();
+			zipsByType.put(type, zips);
+		}
+		zips.add(zip);
+	}
+
+	public Set<ITypeName> getTypes() {
+		return Collections.unmodifiableSet(zipsByType.keySet());
+	}
+
+	public Set<String> getZips(ITypeName type) {
+		Set<String> zips = zipsByType.get(type);
+		return zips == null ? Collections.emptySet() : Collections.unmodifiableSet(zips);
+	}
+
+	public Set<ITypeName> getTypesWithUsages(NestedZipFolders<ITypeName> usages) {
+		Set<ITypeName> types = Sets.newLinkedHashSet();
+		for (ITypeName type : zipsByType.keySet()) {
+			if (usages.hasZips(type)) {
+				types.add(type);
+			}
+		}
+		return types;
+	}
+
+	public static MicroCommitTypeIndex create(Map<String, List<MicroCommit>> commitsByZip) {
+		MicroCommitTypeIndex idx = new MicroCommitTypeIndex();
+		for (String zip : commitsByZip.keySet()) {
+			for (MicroCommit mc : commitsByZip.get(zip)) {
+				idx.add(zip, mc);
+			}
+		}
+		return idx;
+	}
+}
\ No newline at end of file
@@ -15,6 +15,7 @@
  */
 package exec.validate_evaluation.queryhistory;
 
+import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.Type;
 import java.util.Collection;
@@ -27,16 +28,35 @@ import com.google.gson.reflect.TypeToken;
 import cc.kave.commons.utils.io.Directory;
 import cc.kave.commons.utils.io.IReadingArchive;
 import cc.kave.commons.utils.io.WritingArchive;
+import cc.kave.commons.utils.io.json.JsonSerialization;
 import cc.kave.rsse.calls.usages.Usage;
+import exec.csharp.utils.ColumnarCodec;
+import exec.csharp.utils.UsageInterner;
+import exec.validate_evaluation.io.ParallelArchiveReader;
 
 public class QueryHistoryIo {
 
+	private static final Type USAGE_LIST = new TypeToken<List<Usage>>() {
+	}.getType();
+
 	private String dir;
+	private ParallelArchiveReader parallelReader;
+	// the histories of all users are often kept in memory, so all names are
+	// shared
+	private final UsageInterner interner = UsageInterner.shared();
 
 	public QueryHistoryIo(String dir) {
 		this.dir = dir;
 	}
 
+	/**
+	 * decode the entries of (large) zips with a pool of workers, null reads
+	 * them sequentially
+	 */
+	public void setParallelReader(ParallelArchiveReader parallelReader) {
+		this.parallelReader = parallelReader;
+	}
+
 	public Set<String> findQueryHistoryZips() {
 		Directory dir = new Directory(this.dir);
 		return dir.findFiles(s -> s.endsWith(".zip"));
@@ -48,6 +68,8 @@ public class QueryHistoryIo {
 			return;
 		}
 
+		// an outdated binary copy would shadow the new contents
+		ColumnarCodec.getFile(this.dir, zip).delete();
 		Directory dir = new Directory(this.dir);
 		try (WritingArchive wa = dir.getWritingArchive(zip)) {
 			for (List<Usage> us : collection) {
@@ -62,15 +84,24 @@ public class QueryHistoryIo {
 
 	public Collection<List<Usage>> readQueryHistories(String zip) {
 
+		File columnar = ColumnarCodec.getFile(this.dir, zip);
+		if (ColumnarCodec.isUpToDate(columnar)) {
+			List<List<Usage>> us = ColumnarCodec.readUsageLists(columnar);
+			for (List<Usage> hist : us) {
+				interner.internUsages(hist);
+			}
+			return us;
+		}
+		if (parallelReader != null) {
+			return parallelReader.read(new File(this.dir, zip),
+					json -> interner.internUsages(JsonSerialization.<List<Usage>> deserialize(json, USAGE_LIST)));
+		}
+
 		Directory dir = new Directory(this.dir);
 		try (IReadingArchive ra = dir.getReadingArchive(zip)) {
-
-			Type type = new TypeToken<List<Usage>>() {
-			}.getType();
-
 			List<List<Usage>> us = Lists.newLinkedList();
 			while (ra.hasNext()) {
-				us.add(ra.getNext(type));
+				us.add(interner.internUsages(ra.<List<Usage>> getNext(USAGE_LIST)));
 			}
 			return us;
 		} catch (IOException e) {
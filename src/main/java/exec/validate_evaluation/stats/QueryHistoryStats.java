@@ -27,12 +27,12 @@ import com.google.common.collect.Sets;
 
 import cc.kave.commons.assertions.Asserts;
 import cc.kave.commons.evaluation.Boxplot;
-import cc.kave.commons.evaluation.BoxplotData;
 import cc.kave.commons.model.naming.codeelements.IMethodName;
 import cc.kave.commons.model.naming.types.ITypeName;
 import cc.kave.commons.utils.io.NestedZipFolders;
 import cc.kave.rsse.calls.usages.NoUsage;
 import cc.kave.rsse.calls.usages.Usage;
+import exec.csharp.utils.StatsAccumulator;
 import exec.validate_evaluation.queryhistory.QueryHistoryIo;
 
 public class QueryHistoryStats {
@@ -52,7 +52,7 @@ public class QueryHistoryStats {
 	public void run() {
 
 		int numHistoriesWithoutReferenceData = 0;
-		BoxplotData usageHistoryLengths = new BoxplotData();
+		StatsAccumulator usageHistoryLengths = new StatsAccumulator();
 
 		usedTypes = Sets.newHashSet();
 
@@ -108,7 +108,7 @@ public class QueryHistoryStats {
 	}
 
 	private int numLocations = 0;
-	private BoxplotData avgHistLength = new BoxplotData();
+	private StatsAccumulator avgHistLength = new StatsAccumulator();
 
 	private void print() {
 
@@ -15,7 +15,9 @@
  */
 package exec.validate_evaluation.streaks;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.List;
 import java.util.Set;
 
 import com.google.common.collect.Sets;
@@ -25,31 +27,46 @@ import cc.kave.commons.model.events.completionevents.ICompletionEvent;
 import cc.kave.commons.utils.io.Directory;
 import cc.kave.commons.utils.io.IReadingArchive;
 import cc.kave.commons.utils.io.WritingArchive;
+import cc.kave.commons.utils.io.json.JsonSerialization;
 import cc.kave.commons.utils.naming.TypeErasure;
+import exec.validate_evaluation.io.ParallelArchiveReader;
 
 public class EditStreakGenerationIo {
 
 	private String dirIn;
 	private String dirOut;
+	private ParallelArchiveReader parallelReader;
 
 	public EditStreakGenerationIo(String dirIn, String dirOut) {
 		this.dirIn = dirIn;
 		this.dirOut = dirOut;
 	}
 
+	/**
+	 * decode the entries of (large) zips with a pool of workers, null reads
+	 * them sequentially
+	 */
+	public void setParallelReader(ParallelArchiveReader parallelReader) {
+		this.parallelReader = parallelReader;
+	}
+
 	public Set<String> findCompletionEventZips() {
 		Directory dir = new Directory(dirIn);
 		return dir.findFiles(s -> s.endsWith(".zip"));
 	}
 
 	public Set<ICompletionEvent> readCompletionEvents(String zip) {
+		if (parallelReader != null) {
+			// the type erasure is expensive, too, so it runs on the workers
+			List<ICompletionEvent> es = parallelReader.read(new File(dirIn, zip),
+					json -> eraseTypes(JsonSerialization.deserialize(json, CompletionEvent.class)));
+			return Sets.newLinkedHashSet(es);
+		}
 		Set<ICompletionEvent> es = Sets.newLinkedHashSet();
 		Directory dir = new Directory(dirIn);
 		try (IReadingArchive ra = dir.getReadingArchive(zip)) {
 			while (ra.hasNext()) {
-				CompletionEvent ce = ra.getNext(CompletionEvent.class);
-				ce.context = TypeErasure.of(ce.context);
-				es.add(ce);
+				es.add(eraseTypes(ra.getNext(CompletionEvent.class)));
 			}
 		} catch (IOException e) {
 			throw new RuntimeException(e);
@@ -58,6 +75,11 @@ public class EditStreakGenerationIo {
 		return es;
 	}
 
+	private static ICompletionEvent eraseTypes(CompletionEvent ce) {
+		ce.context = TypeErasure.of(ce.context);
+		return ce;
+	}
+
 	public void storeEditStreaks(Set<EditStreak> streaks, String zip) {
 		if (streaks.isEmpty()) {
 			return;
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2014 Technische Universität Darmstadt
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package exec.csharp.evaluation;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import cc.kave.rsse.calls.usages.Usage;
+import exec.csharp.queries.QueryMode;
+
+public class AbstractEvaluationConsumerTest {
+
+	private PrintStream originalOut;
+	private ByteArrayOutputStream out;
+
+	@Before
+	public void setup() {
+		originalOut = System.out;
+		out = new ByteArrayOutputStream();
+		System.setOut(new PrintStream(out, true));
+	}
+
+	@After
+	public void teardown() {
+		System.setOut(originalOut);
+	}
+
+	@Test
+	public void outputIsWrittenDirectly() {
+		new TestConsumer().print("a%d", 1);
+		assertEquals("a1", out.toString());
+	}
+
+	@Test
+	public void outputOfPartialsIsReplayedOnMerge() {
+		TestConsumer sut = new TestConsumer();
+		TestConsumer p1 = (TestConsumer) sut.createPartial();
+		TestConsumer p2 = (TestConsumer) sut.createPartial();
+		p2.print("b");
+		p1.print("a");
+		p2.print("b");
+		assertEquals("", out.toString());
+
+		sut.merge(p1);
+		sut.merge(p2);
+		assertEquals("abb", out.toString());
+	}
+
+	@Test
+	public void outputIsOnlyReplayedOnce() {
+		TestConsumer sut = new TestConsumer();
+		TestConsumer p = (TestConsumer) sut.createPartial();
+		p.print("a");
+		sut.merge(p);
+		sut.merge(p);
+		assertEquals("a", out.toString());
+	}
+
+	private static class TestConsumer extends AbstractEvaluationConsumer implements IMergeableEvaluationConsumer {
+
+		@Override
+		public void run() {
+		}
+
+		@Override
+		public void init() {
+		}
+
+		@Override
+		public void addResult(Usage start, Usage end, QueryMode queryMode, double f1) {
+		}
+
+		@Override
+		public void finish() {
+		}
+
+		@Override
+		public IMergeableEvaluationConsumer createPartial() {
+			return asPartial(new TestConsumer());
+		}
+
+		@Override
+		public void merge(IMergeableEvaluationConsumer partial) {
+			replayOutput((TestConsumer) partial);
+		}
+	}
+}
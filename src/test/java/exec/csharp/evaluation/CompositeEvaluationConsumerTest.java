@@ -0,0 +1,81 @@
+/*
+ * Copyright 2014 Technische Universität Darmstadt
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package exec.csharp.evaluation;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import cc.kave.rsse.calls.usages.Query;
+import cc.kave.rsse.calls.usages.Usage;
+import exec.csharp.queries.QueryMode;
+
+public class CompositeEvaluationConsumerTest {
+
+	private IEvaluation eval;
+	private IMergeableEvaluationConsumer a;
+	private IMergeableEvaluationConsumer b;
+	private CompositeEvaluationConsumer sut;
+
+	@Before
+	public void setup() {
+		eval = mock(IEvaluation.class);
+		a = mock(IMergeableEvaluationConsumer.class);
+		b = mock(IMergeableEvaluationConsumer.class);
+		sut = new CompositeEvaluationConsumer(eval, a, b);
+	}
+
+	@Test
+	public void runInitializesAllConsumersAndStartsASinglePass() {
+		sut.run();
+		verify(a).init();
+		verify(b).init();
+		verify(eval).run(sut);
+	}
+
+	@Test
+	public void resultsAreBroadcasted() {
+		Usage start = new Query();
+		Usage end = new Query();
+		sut.addResult(start, end, QueryMode.LINEAR, 0.5);
+		verify(a).addResult(start, end, QueryMode.LINEAR, 0.5);
+		verify(b).addResult(start, end, QueryMode.LINEAR, 0.5);
+	}
+
+	@Test
+	public void finishIsBroadcasted() {
+		sut.finish();
+		verify(a).finish();
+		verify(b).finish();
+	}
+
+	@Test
+	public void partialsAreMergedPerConsumer() {
+		IMergeableEvaluationConsumer pa = mock(IMergeableEvaluationConsumer.class);
+		IMergeableEvaluationConsumer pb = mock(IMergeableEvaluationConsumer.class);
+		when(a.createPartial()).thenReturn(pa);
+		when(b.createPartial()).thenReturn(pb);
+
+		IMergeableEvaluationConsumer partial = sut.createPartial();
+		sut.merge(partial);
+
+		verify(a).merge(pa);
+		verify(b).merge(pb);
+	}
+}
@@ -82,4 +82,13 @@ public class AnalysisOfNoiseTest extends AbstractEvalTest {
 		sut.skipCommit_NoAddition(QueryMode.LINEAR);
 		sut.finish();
 	}
+
+	@Test
+	public void partialsCanBeMerged() {
+		AnalysisOfNoise partial = (AnalysisOfNoise) sut.createPartial();
+		partial.addResult(createQuery(1), createQuery(1, 2), QueryMode.LINEAR, 0.1);
+		partial.skipCommit_NoAddition(QueryMode.LINEAR);
+		sut.merge(partial);
+		sut.finish();
+	}
 }
\ No newline at end of file
@@ -72,4 +72,19 @@ public class F1DetailsTest extends AbstractEvalTest {
 
 		sut.finish();
 	}
+
+	@Test
+	public void partialsCanBeMerged() {
+		Query start = createQuery();
+		Query end = createQuery(1);
+
+		F1Details p1 = (F1Details) sut.createPartial();
+		p1.addResult(start, end, QueryMode.LINEAR, 0.123);
+		F1Details p2 = (F1Details) sut.createPartial();
+		p2.addResult(start, end, QueryMode.RANDOM, 0.234);
+
+		sut.merge(p1);
+		sut.merge(p2);
+		sut.finish();
+	}
 }
\ No newline at end of file
@@ -72,6 +72,32 @@ public abstract class AbstractQueryBuilderTest {
 		}
 	}
 
+	@Test
+	public void sourcesAreNotModified() {
+		Usage start = createUsage("a", "c");
+		Usage end = createUsage("a", "b");
+		end.getAllCallsites().add(param("p"));
+
+		sut.createQueries(start, end);
+
+		assertEquals(createUsage("a", "c"), start);
+		Usage expectedEnd = createUsage("a", "b");
+		expectedEnd.getAllCallsites().add(param("p"));
+		assertEquals(expectedEnd, end);
+	}
+
+	@Test
+	public void contextIsShared() {
+		Usage start = createUsage();
+		Usage end = createUsage("a");
+		for (Query q : sut.createQueries(start, end)) {
+			assertTrue(q.getDefinitionSite() == start.getDefinitionSite()
+					|| q.getDefinitionSite() == end.getDefinitionSite());
+			assertTrue(q.getMethodContext() == start.getMethodContext()
+					|| q.getMethodContext() == end.getMethodContext());
+		}
+	}
+
 	protected abstract IQueryBuilder<Usage, Query> createQueryBuilder();
 
 	protected Query assertSingleQuery(Usage start, Usage end) {
@@ -15,6 +15,8 @@
  */
 package exec.csharp.queries;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 
@@ -62,6 +64,21 @@ public class QueryBuilderFactoryTest {
 		assertTrue(actual instanceof RealWithNoiseQueryBuilder);
 	}
 
+	@Test
+	public void configurationContainsTheRandomSettings() {
+		QueryBuilderFactory a = create(new RandomQueryBuilder(6, 1));
+		QueryBuilderFactory b = create(new RandomQueryBuilder(6, 2));
+		QueryBuilderFactory c = create(new RandomQueryBuilder(7, 1));
+		assertEquals(a.getConfiguration(), create(new RandomQueryBuilder(6, 1)).getConfiguration());
+		assertNotEquals(a.getConfiguration(), b.getConfiguration());
+		assertNotEquals(a.getConfiguration(), c.getConfiguration());
+	}
+
+	private static QueryBuilderFactory create(RandomQueryBuilder random) {
+		return new QueryBuilderFactory(new LinearQueryBuilder(), random, new RealQueryBuilder(),
+				new RealWithNoiseQueryBuilder());
+	}
+
 	@Test(expected = AssertionException.class)
 	public void nullCase() {
 		sut.get(null);
@@ -17,12 +17,14 @@ package exec.csharp.queries;
 
 import static cc.kave.commons.assertions.Asserts.assertTrue;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 
 import java.util.List;
 import java.util.Set;
 
 import org.junit.Test;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 
 import cc.kave.commons.model.naming.Names;
@@ -31,6 +33,7 @@ import cc.kave.rsse.calls.usages.CallSites;
 import cc.kave.rsse.calls.usages.DefinitionSites;
 import cc.kave.rsse.calls.usages.Query;
 import cc.kave.rsse.calls.usages.Usage;
+import exec.csharp.utils.QueryUtils;
 
 public class RandomQueryBuilderTest extends AbstractQueryBuilderTest {
 
@@ -86,6 +89,75 @@ public class RandomQueryBuilderTest extends AbstractQueryBuilderTest {
 		assertEquals(expecteds, actuals);
 	}
 
+	@Test
+	public void smallUsagesAreEnumeratedDeterministically() {
+		List<Query> a = sut.createQueries(q(1), q(1, 2, 3));
+		List<Query> b = sut.createQueries(q(1), q(1, 2, 3));
+		assertEquals(a, b);
+		assertEquals(Lists.newArrayList(q(1), q(2), q(3)), a);
+	}
+
+	@Test
+	public void noRemainingCallSites() {
+		List<Query> out = sut.createQueries(q(), q(1, 2));
+		assertEquals(Lists.newArrayList(q()), out);
+	}
+
+	@Test
+	public void maxNumPossible() {
+		assertEquals(1, sut.getMaxNumPossible(0, 3));
+		assertEquals(3, sut.getMaxNumPossible(1, 3));
+		assertEquals(3, sut.getMaxNumPossible(2, 4));
+		assertEquals(3, sut.getMaxNumPossible(30, 60));
+	}
+
+	@Test
+	public void samplingIsReproducible() {
+		List<Query> a = sut.createQueries(q(1), q(1, 2, 3, 4, 5, 6));
+		List<Query> b = new RandomQueryBuilder(3).createQueries(q(1), q(1, 2, 3, 4, 5, 6));
+		assertEquals(3, a.size());
+		assertEquals(a, b);
+	}
+
+	@Test
+	public void samplingDependsOnSeed() {
+		List<Query> a = new RandomQueryBuilder(3, 1).createQueries(q(1, 2, 3), q(1, 2, 3, 4, 5, 6, 7, 8, 9, 10));
+		List<Query> b = new RandomQueryBuilder(3, 2).createQueries(q(1, 2, 3), q(1, 2, 3, 4, 5, 6, 7, 8, 9, 10));
+		assertNotEquals(a, b);
+	}
+
+	@Test
+	public void seedIgnoresCallSiteOrder() {
+		Query a = q(1, 2, 3);
+		Query b = q(3, 1, 2);
+		assertEquals(seed(1, a), seed(1, b));
+		assertEquals(sut.createQueries(q(1), q(1, 2, 3, 4, 5, 6)), sut.createQueries(q(1), q(6, 5, 4, 3, 2, 1)));
+	}
+
+	@Test
+	public void seedDependsOnUsageAndSeed() {
+		long seed = seed(1, q(1, 2, 3));
+		assertNotEquals(seed, seed(2, q(1, 2, 3)));
+		assertNotEquals(seed, seed(1, q(1, 2, 4)));
+		assertNotEquals(seed, seed(1, q(1, 2)));
+	}
+
+	@Test
+	public void sitesAreSortedWithTheirKeys() {
+		CallSite[] sites = q(3, 1, 2).getReceiverCallsites().toArray(new CallSite[0]);
+		String[] keys = RandomQueryBuilder.sortByKey(sites);
+		assertEquals(3, keys.length);
+		for (int i = 0; i < sites.length; i++) {
+			assertEquals(CallSites.createReceiverCallSite("LT.m" + (i + 1) + "()V"), sites[i]);
+			assertEquals(QueryUtils.toKey(sites[i]), keys[i]);
+		}
+	}
+
+	private static long seed(long seed, Usage u) {
+		CallSite[] sites = u.getReceiverCallsites().toArray(new CallSite[0]);
+		return RandomQueryBuilder.createSeed(seed, u.getType(), RandomQueryBuilder.sortByKey(sites));
+	}
+
 	private Set<Query> assertUniqueQueries(List<Query> input) {
 		Set<Query> output = Sets.newLinkedHashSet();
 		output.addAll(input);
@@ -0,0 +1,221 @@
+/*
+ * Copyright 2014 Technische Universität Darmstadt
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package exec.csharp.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.collect.Lists;
+
+import cc.kave.commons.model.naming.Names;
+import cc.kave.rsse.calls.usages.CallSites;
+import cc.kave.rsse.calls.usages.DefinitionSites;
+import cc.kave.rsse.calls.usages.NoUsage;
+import cc.kave.rsse.calls.usages.Query;
+import cc.kave.rsse.calls.usages.Usage;
+import exec.csharp.utils.ColumnarCodec.Kind;
+import exec.validate_evaluation.microcommits.MicroCommit;
+
+public class ColumnarCodecTest {
+
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	private File file;
+
+	@Before
+	public void setup() {
+		file = ColumnarCodec.getFile(tmp.getRoot().getAbsolutePath(), "a/b.zip");
+	}
+
+	@Test
+	public void fileIsNextToZip() {
+		assertEquals(new File(tmp.getRoot(), "a/b.zip.col"), file);
+	}
+
+	@Test
+	public void copyOfCurrentZipIsUpToDate() throws IOException {
+		File zip = new File(tmp.getRoot(), "a/b.zip");
+		zip.getParentFile().mkdirs();
+		FileUtils.writeStringToFile(zip, "x");
+		ColumnarCodec.writeUsages(Lists.newArrayList(q(1)), file);
+		assertTrue(ColumnarCodec.isUpToDate(file));
+	}
+
+	@Test
+	public void copyOfChangedZipIsOutdated() throws IOException {
+		File zip = new File(tmp.getRoot(), "a/b.zip");
+		zip.getParentFile().mkdirs();
+		FileUtils.writeStringToFile(zip, "x");
+		ColumnarCodec.writeUsages(Lists.newArrayList(q(1)), file);
+		FileUtils.writeStringToFile(zip, "xy");
+		assertFalse(ColumnarCodec.isUpToDate(file));
+	}
+
+	@Test
+	public void copyWithoutZipIsOutdated() {
+		ColumnarCodec.writeUsages(Lists.newArrayList(q(1)), file);
+		assertFalse(ColumnarCodec.isUpToDate(file));
+	}
+
+	@Test
+	public void missingCopyIsOutdated() {
+		assertFalse(ColumnarCodec.isUpToDate(file));
+	}
+
+	@Test
+	public void usagesRoundTrip() {
+		List<Usage> expected = Lists.newArrayList(q(1), q(2), new NoUsage(), emptyQuery());
+		ColumnarCodec.writeUsages(expected, file);
+		assertEquals(Kind.USAGES, ColumnarCodec.readKind(file));
+		assertEquals(expected, ColumnarCodec.readUsages(file));
+	}
+
+	@Test
+	public void usagesCanBeIterated() {
+		List<Usage> expected = Lists.newArrayList(q(1), new NoUsage(), q(2));
+		ColumnarCodec.writeUsages(expected, file);
+		Iterable<Usage> actual = ColumnarCodec.iterateUsages(file);
+		assertEquals(expected, Lists.newArrayList(actual));
+		assertEquals(expected, Lists.newArrayList(actual));
+	}
+
+	@Test
+	public void iteratorIsLazy() {
+		ColumnarCodec.writeUsages(Lists.newArrayList(q(1), q(2)), file);
+		Iterator<Usage> it = ColumnarCodec.iterateUsages(file).iterator();
+		assertTrue(it.hasNext());
+		assertEquals(q(1), it.next());
+		assertEquals(q(2), it.next());
+		assertFalse(it.hasNext());
+	}
+
+	@Test
+	public void buffersCanBeIterated() {
+		List<Usage> expected = Lists.newArrayList(q(1), new NoUsage(), q(2));
+		ByteBuffer buffer = ByteBuffer.wrap(ColumnarCodec.encodeUsages(expected));
+		Iterable<Usage> actual = ColumnarCodec.iterateUsages(buffer);
+		assertEquals(expected, Lists.newArrayList(actual));
+		assertEquals(expected, Lists.newArrayList(actual));
+		assertEquals(0, buffer.position());
+	}
+
+	@Test
+	public void definitionsRoundTrip() {
+		Query a = q(1);
+		a.setDefinition(DefinitionSites.createDefinitionByThis());
+		Query b = q(1);
+		b.setDefinition(DefinitionSites.createDefinitionByReturn(Names.newMethod("LT.create()LT;")));
+		Query c = q(1);
+		c.setDefinition(DefinitionSites.createUnknownDefinitionSite());
+		List<Usage> expected = Lists.newArrayList(a, b, c);
+		ColumnarCodec.writeUsages(expected, file);
+		assertEquals(expected, ColumnarCodec.readUsages(file));
+	}
+
+	@Test
+	public void namesAreOnlyCreatedOnce() {
+		ColumnarCodec.writeUsages(Lists.newArrayList(q(1), q(2)), file);
+		List<Usage> actual = ColumnarCodec.readUsages(file);
+		assertSame(actual.get(0).getType(), actual.get(1).getType());
+		assertSame(actual.get(0).getMethodContext(), actual.get(1).getMethodContext());
+	}
+
+	@Test
+	public void microCommitsRoundTrip() {
+		List<MicroCommit> expected = Lists.newArrayList(MicroCommit.create(q(1), q(2)),
+				MicroCommit.create(new NoUsage(), q(3)), MicroCommit.create(q(4), new NoUsage()));
+		ColumnarCodec.writeMicroCommits(expected, file);
+		assertEquals(Kind.MICRO_COMMITS, ColumnarCodec.readKind(file));
+		assertEquals(expected, ColumnarCodec.readMicroCommits(file));
+	}
+
+	@Test
+	public void usageListsRoundTrip() {
+		List<List<Usage>> expected = Lists.newArrayList();
+		expected.add(Lists.newArrayList(q(1), q(2)));
+		expected.add(Lists.newArrayList());
+		expected.add(Lists.newArrayList(new NoUsage(), q(3), q(4)));
+		ColumnarCodec.writeUsageLists(expected, file);
+		assertEquals(Kind.USAGE_LISTS, ColumnarCodec.readKind(file));
+		assertEquals(expected, ColumnarCodec.readUsageLists(file));
+	}
+
+	@Test
+	public void emptyFiles() {
+		ColumnarCodec.writeUsages(Lists.newArrayList(), file);
+		assertEquals(Lists.newArrayList(), ColumnarCodec.readUsages(file));
+	}
+
+	@Test
+	public void manyCallSites() {
+		Query q = q(1);
+		for (int i = 0; i < 300; i++) {
+			q.addCallSite(CallSites.createReceiverCallSite("LT.n" + i + "()V"));
+		}
+		List<Usage> expected = Lists.newArrayList(q);
+		ColumnarCodec.writeUsages(expected, file);
+		assertEquals(expected, ColumnarCodec.readUsages(file));
+	}
+
+	@Test
+	public void longNames() {
+		StringBuilder sb = new StringBuilder("LT.");
+		for (int i = 0; i < 70000; i++) {
+			sb.append(i % 2 == 0 ? 'a' : '\u00e4');
+		}
+		Query q = q(1);
+		q.addCallSite(CallSites.createReceiverCallSite(sb.append("()V").toString()));
+		List<Usage> expected = Lists.newArrayList(q);
+		ColumnarCodec.writeUsages(expected, file);
+		assertEquals(expected, ColumnarCodec.readUsages(file));
+	}
+
+	@Test(expected = RuntimeException.class)
+	public void kindIsChecked() {
+		ColumnarCodec.writeUsages(Lists.newArrayList(q(1)), file);
+		ColumnarCodec.readMicroCommits(file);
+	}
+
+	private static Query q(int i) {
+		Query q = new Query();
+		q.setType(Names.newType("T, P"));
+		q.setClassContext(Names.newType("C, P"));
+		q.setMethodContext(Names.newMethod("[p:void] [C, P].m()"));
+		q.setDefinition(DefinitionSites.createDefinitionByConstant());
+		q.addCallSite(CallSites.createReceiverCallSite("LT.m" + i + "()V"));
+		q.addCallSite(CallSites.createParameterCallSite("LT.p" + i + "()V", 1));
+		return q;
+	}
+
+	private static Query emptyQuery() {
+		return new Query();
+	}
+}
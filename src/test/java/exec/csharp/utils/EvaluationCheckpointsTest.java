@@ -0,0 +1,98 @@
+/*
+ * Copyright 2014 Technische Universität Darmstadt
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package exec.csharp.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.collect.Lists;
+
+import cc.kave.commons.model.naming.Names;
+
+public class EvaluationCheckpointsTest {
+
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	private EvaluationCheckpoints sut;
+
+	@Before
+	public void setup() {
+		sut = new EvaluationCheckpoints(tmp.getRoot().getAbsolutePath(), "cfg");
+	}
+
+	@Test
+	public void missingCheckpoint() {
+		assertNull(sut.read(Names.newType("LT")));
+	}
+
+	@Test
+	public void storedValuesAreReadExactly() {
+		List<Double> f1s = Lists.newArrayList(0.0, 1.0, 1 / 3.0, 0.1 + 0.2, Double.NaN);
+		sut.store(Names.newType("LT"), f1s);
+		assertEquals(f1s, sut.read(Names.newType("LT")));
+	}
+
+	@Test
+	public void checkpointsArePerType() {
+		sut.store(Names.newType("LT"), Lists.newArrayList(1.0));
+		assertNull(sut.read(Names.newType("LT2")));
+	}
+
+	@Test
+	public void checkpointsArePerConfiguration() {
+		sut.store(Names.newType("LT"), Lists.newArrayList(1.0));
+		EvaluationCheckpoints other = new EvaluationCheckpoints(tmp.getRoot().getAbsolutePath(), "cfg2");
+		assertNull(other.read(Names.newType("LT")));
+	}
+
+	@Test
+	public void checkpointsSurviveRestarts() {
+		sut.store(Names.newType("LT"), Lists.newArrayList(0.5));
+		EvaluationCheckpoints restarted = new EvaluationCheckpoints(tmp.getRoot().getAbsolutePath(), "cfg");
+		assertEquals(Lists.newArrayList(0.5), restarted.read(Names.newType("LT")));
+	}
+
+	@Test
+	public void replayingAllValues() {
+		Iterator<Double> replay = Lists.newArrayList(0.5, 1.0).iterator();
+		assertEquals(0.5, EvaluationCheckpoints.nextReplayed(replay, Names.newType("LT")), 0.0);
+		assertEquals(1.0, EvaluationCheckpoints.nextReplayed(replay, Names.newType("LT")), 0.0);
+		EvaluationCheckpoints.assertReplayFinished(replay, Names.newType("LT"));
+	}
+
+	@Test(expected = RuntimeException.class)
+	public void replayingTooManyValuesFails() {
+		Iterator<Double> replay = Lists.newArrayList(0.5).iterator();
+		EvaluationCheckpoints.nextReplayed(replay, Names.newType("LT"));
+		EvaluationCheckpoints.nextReplayed(replay, Names.newType("LT"));
+	}
+
+	@Test(expected = RuntimeException.class)
+	public void unusedValuesFail() {
+		Iterator<Double> replay = Lists.newArrayList(0.5, 1.0).iterator();
+		EvaluationCheckpoints.nextReplayed(replay, Names.newType("LT"));
+		EvaluationCheckpoints.assertReplayFinished(replay, Names.newType("LT"));
+	}
+}
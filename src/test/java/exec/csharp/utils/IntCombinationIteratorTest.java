@@ -0,0 +1,156 @@
+/*
+ * Copyright 2014 Technische Universität Darmstadt
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package exec.csharp.utils;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+import cc.kave.commons.exceptions.AssertionException;
+import exec.csharp.utils.IntCombinationIterator.Order;
+
+public class IntCombinationIteratorTest {
+
+	@Test
+	public void lexicographicOrder() {
+		List<int[]> actuals = all(new IntCombinationIterator(4, 2));
+		assertEquals(6, actuals.size());
+		assertArrayEquals(new int[] { 0, 1 }, actuals.get(0));
+		assertArrayEquals(new int[] { 0, 2 }, actuals.get(1));
+		assertArrayEquals(new int[] { 0, 3 }, actuals.get(2));
+		assertArrayEquals(new int[] { 1, 2 }, actuals.get(3));
+		assertArrayEquals(new int[] { 1, 3 }, actuals.get(4));
+		assertArrayEquals(new int[] { 2, 3 }, actuals.get(5));
+	}
+
+	@Test
+	public void sameOrderAsCombinationIterator() {
+		List<Integer> items = Lists.newArrayList(0, 1, 2, 3, 4, 5);
+		IntCombinationIterator sut = new IntCombinationIterator(6, 3);
+		for (List<Integer> expected : new CombinationIterator<Integer>(items, 3)) {
+			assertTrue(sut.next());
+			assertEquals(expected, toList(sut.getSelection()));
+		}
+		assertFalse(sut.next());
+	}
+
+	@Test
+	public void revolvingDoorOrder() {
+		List<int[]> actuals = all(new IntCombinationIterator(5, 3, Order.REVOLVING_DOOR));
+		assertEquals(10, actuals.size());
+		assertArrayEquals(new int[] { 0, 1, 2 }, actuals.get(0));
+		assertArrayEquals(new int[] { 0, 2, 3 }, actuals.get(1));
+		assertArrayEquals(new int[] { 1, 2, 3 }, actuals.get(2));
+		assertArrayEquals(new int[] { 0, 1, 4 }, actuals.get(9));
+	}
+
+	@Test
+	public void revolvingDoorChangesOneElement() {
+		for (int n = 1; n < 9; n++) {
+			for (int k = 1; k <= n; k++) {
+				IntCombinationIterator sut = new IntCombinationIterator(n, k, Order.REVOLVING_DOOR);
+				assertTrue(sut.next());
+				assertEquals(-1, sut.getLastRemoved());
+				assertEquals(-1, sut.getLastAdded());
+				Set<Integer> prev = Sets.newHashSet(toList(sut.getSelection()));
+				while (sut.next()) {
+					Set<Integer> cur = Sets.newHashSet(toList(sut.getSelection()));
+					assertEquals(Sets.newHashSet(sut.getLastRemoved()), Sets.difference(prev, cur));
+					assertEquals(Sets.newHashSet(sut.getLastAdded()), Sets.difference(cur, prev));
+					prev = cur;
+				}
+			}
+		}
+	}
+
+	@Test
+	public void allCombinationsAreVisitedOnce() {
+		for (Order order : Order.values()) {
+			for (int n = 0; n < 9; n++) {
+				for (int k = 0; k <= n; k++) {
+					List<int[]> actuals = all(new IntCombinationIterator(n, k, order));
+					Set<List<Integer>> unique = Sets.newHashSet();
+					for (int[] actual : actuals) {
+						unique.add(toList(actual));
+					}
+					assertEquals(binomial(n, k), actuals.size());
+					assertEquals(actuals.size(), unique.size());
+				}
+			}
+		}
+	}
+
+	@Test
+	public void selectionIsReused() {
+		IntCombinationIterator sut = new IntCombinationIterator(3, 2);
+		sut.next();
+		int[] a = sut.getSelection();
+		sut.next();
+		assertSame(a, sut.getSelection());
+	}
+
+	@Test
+	public void emptySelection() {
+		IntCombinationIterator sut = new IntCombinationIterator(3, 0);
+		assertTrue(sut.next());
+		assertEquals(0, sut.getSelection().length);
+		assertFalse(sut.next());
+	}
+
+	@Test(expected = AssertionException.class)
+	public void noSelectionBeforeNext() {
+		new IntCombinationIterator(3, 2).getSelection();
+	}
+
+	@Test(expected = AssertionException.class)
+	public void tooManyElements() {
+		new IntCombinationIterator(3, 4);
+	}
+
+	private static List<int[]> all(IntCombinationIterator it) {
+		List<int[]> out = Lists.newArrayList();
+		while (it.next()) {
+			out.add(it.getSelection().clone());
+		}
+		return out;
+	}
+
+	private static List<Integer> toList(int[] arr) {
+		List<Integer> out = Lists.newArrayList();
+		for (int i : arr) {
+			out.add(i);
+		}
+		return out;
+	}
+
+	private static int binomial(int n, int k) {
+		long num = 1;
+		for (int i = 1; i <= k; i++) {
+			num = num * (n - k + i) / i;
+		}
+		return (int) num;
+	}
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2014 Technische Universität Darmstadt
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package exec.csharp.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+import cc.kave.commons.model.naming.Names;
+import cc.kave.commons.model.naming.types.ITypeName;
+import cc.kave.commons.utils.io.Directory;
+import cc.kave.commons.utils.io.WritingArchive;
+import cc.kave.rsse.calls.usages.CallSites;
+import cc.kave.rsse.calls.usages.DefinitionSites;
+import cc.kave.rsse.calls.usages.Query;
+import cc.kave.rsse.calls.usages.Usage;
+
+public class MappedUsageStoreTest {
+
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	private String root;
+	private MappedUsageStore sut;
+
+	@Before
+	public void setup() throws IOException {
+		root = tmp.newFolder("Usages").getAbsolutePath();
+		write("T1/0.zip", q(1, 1), q(1, 2));
+		write("T1/1.zip", q(1, 3));
+		write("T2/0.zip", q(2, 1));
+		TypeManifest manifest = TypeManifest.create(root, Query.class, Query::getType);
+		MappedUsageStore.create(root, new ManifestZipFolders(root, manifest));
+		sut = MappedUsageStore.open(root);
+	}
+
+	@After
+	public void teardown() throws IOException {
+		sut.close();
+	}
+
+	@Test
+	public void storeIsCreated() {
+		assertTrue(MappedUsageStore.exists(root));
+		assertFalse(new File(root, MappedUsageStore.FILE_NAME + ".tmp").exists());
+	}
+
+	@Test
+	public void typesAreIndexed() {
+		assertEquals(Sets.newHashSet(type(1), type(2)), sut.getTypes());
+		assertTrue(sut.hasType(type(1)));
+		assertFalse(sut.hasType(type(3)));
+		assertEquals(3, sut.getNumUsages(type(1)));
+		assertEquals(1, sut.getNumUsages(type(2)));
+		assertEquals(0, sut.getNumUsages(type(3)));
+		assertTrue(sut.getSizeInBytes(type(1)) > 0);
+	}
+
+	@Test
+	public void usagesAreRead() {
+		assertEquals(Lists.newArrayList(q(1, 1), q(1, 2), q(1, 3)), Lists.newArrayList(sut.read(type(1))));
+		assertEquals(Lists.newArrayList(q(2, 1)), Lists.newArrayList(sut.read(type(2))));
+		assertEquals(Lists.newArrayList(), Lists.newArrayList(sut.read(type(3))));
+	}
+
+	@Test
+	public void readsAreIndependent() {
+		assertEquals(Lists.newArrayList(sut.read(type(2))), Lists.newArrayList(sut.read(type(2))));
+		assertEquals(Lists.newArrayList(q(1, 1), q(1, 2), q(1, 3)), Lists.newArrayList(sut.read(type(1))));
+	}
+
+	@Test
+	public void readIsLazy() {
+		Iterable<Usage> usages = sut.read(type(1));
+		Iterator<Usage> it = usages.iterator();
+		assertEquals(q(1, 1), it.next());
+		assertEquals(Lists.newArrayList(q(1, 1), q(1, 2), q(1, 3)), Lists.newArrayList(usages));
+		assertEquals(q(1, 2), it.next());
+	}
+
+	@Test
+	public void mappedFolders() {
+		MappedZipFolders folders = new MappedZipFolders(root, sut);
+		assertEquals(Sets.newHashSet(type(1), type(2)), folders.findKeys());
+		assertTrue(folders.hasZips(type(1)));
+		assertFalse(folders.hasZips(type(3)));
+		assertEquals(Lists.newArrayList(q(2, 1)), folders.readAllZips(type(2), Usage.class));
+		assertEquals(Lists.newArrayList(q(2, 1)), folders.readAllZips(type(2), Query.class));
+	}
+
+	@Test
+	public void storageHelperPrefersMappedStore() {
+		StorageHelper storageHelper = new StorageHelper(tmp.getRoot().getAbsolutePath());
+		assertTrue(storageHelper.getNestedZipFolder(StorageCase.USAGES) instanceof MappedZipFolders);
+		assertEquals(3, storageHelper.getMappedUsages().getNumUsages(type(1)));
+	}
+
+	@Test
+	public void storeIsUpToDate() {
+		assertTrue(sut.isUpToDate());
+		assertEquals(ZipFingerprint.of(root), sut.getFingerprint());
+	}
+
+	@Test
+	public void storeIsOutdatedWhenZipsChange() throws IOException {
+		write("T3/0.zip", q(3, 1));
+		assertFalse(sut.isUpToDate());
+		StorageHelper storageHelper = new StorageHelper(tmp.getRoot().getAbsolutePath());
+		assertNull(storageHelper.getMappedUsages());
+		assertFalse(storageHelper.getNestedZipFolder(StorageCase.USAGES) instanceof MappedZipFolders);
+	}
+
+	@Test(expected = RuntimeException.class)
+	public void brokenStore() throws IOException {
+		String other = tmp.newFolder("other").getAbsolutePath();
+		FileUtils.writeStringToFile(MappedUsageStore.getFile(other), "xyz");
+		MappedUsageStore.open(other);
+	}
+
+	private void write(String zip, Query... qs) throws IOException {
+		Directory dir = new Directory(root);
+		new File(root, zip).getParentFile().mkdirs();
+		try (WritingArchive wa = dir.getWritingArchive(zip)) {
+			for (Query q : qs) {
+				wa.add(q);
+			}
+		}
+	}
+
+	private static Query q(int typeNum, int methodNum) {
+		Query q = new Query();
+		q.setType(type(typeNum));
+		q.setClassContext(Names.newType("C, P"));
+		q.setMethodContext(Names.newMethod("[p:void] [C, P].ctx()"));
+		q.setDefinition(DefinitionSites.createDefinitionByThis());
+		q.addCallSite(CallSites.createReceiverCallSite("[p:void] [T" + typeNum + ", P].m" + methodNum + "()"));
+		return q;
+	}
+
+	private static ITypeName type(int num) {
+		return Names.newType("T" + num + ", P");
+	}
+}
@@ -21,9 +21,17 @@ import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyListOf;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.IOException;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -33,8 +41,11 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 
 import cc.kave.commons.model.naming.types.ITypeName;
+import cc.kave.commons.utils.io.Directory;
+import cc.kave.commons.utils.io.IReadingArchive;
 import cc.kave.commons.utils.io.NestedZipFolders;
 import cc.kave.rsse.calls.ICallsRecommender;
 import cc.kave.rsse.calls.mining.NoCallRecommender;
@@ -50,6 +61,8 @@ public class ModelHelperTest {
 	private StorageHelper storageHelper;
 	@Mock
 	private NestedZipFolders<ITypeName> folder;
+	@Mock
+	private Directory dir;
 
 	@Mock
 	private ITypeName typeWithoutUsages;
@@ -69,32 +82,50 @@ public class ModelHelperTest {
 	private List<Query> usages;
 
 	@Before
-	public void setup() {
+	public void setup() throws IOException {
 		MockitoAnnotations.initMocks(this);
 
 		when(storageHelper.getNestedZipFolder(any(StorageCase.class))).thenReturn(folder);
+		when(storageHelper.getDirectory(any(StorageCase.class))).thenReturn(dir);
 
 		when(folder.hasZips(typeWithoutUsages)).thenReturn(false);
 		when(folder.hasZips(typeWithEmptyList)).thenReturn(true);
 		when(folder.hasZips(regularType)).thenReturn(true);
 		when(folder.hasZips(typeWithManyUsages)).thenReturn(true);
 
-		when(folder.readAllZips(typeWithEmptyList, Query.class)).thenReturn(Lists.newArrayList());
-		Query q = mock(Query.class);
-		usages = Lists.newArrayList(q);
-		when(folder.readAllZips(regularType, Query.class)).thenReturn(usages);
-		when(folder.readAllZips(typeWithManyUsages, Query.class))
-				.thenReturn(manyUsages(ModelHelper.MAX_NUM_USAGES + 1));
+		Set<String> zips = Sets.newHashSet();
+		when(dir.findFiles(any())).thenReturn(zips);
+
+		addZip(zips, "empty/0.zip", Lists.newArrayList());
+		usages = manyUsages(regularType, 1);
+		addZip(zips, "regular/0.zip", usages);
+		addZip(zips, "many/0.zip", manyUsages(typeWithManyUsages, ModelHelper.MAX_NUM_USAGES / 2));
+		addZip(zips, "many/1.zip", manyUsages(typeWithManyUsages, ModelHelper.MAX_NUM_USAGES / 2 + 1));
 
 		when(miner.createRecommender(anyListOf(Usage.class))).thenReturn(recommender);
 
-		sut = new ModelHelper(miner, storageHelper);
+		sut = new ModelHelper(() -> miner, storageHelper);
+	}
+
+	private void addZip(Set<String> zips, String zip, List<Query> content) throws IOException {
+		zips.add(zip);
+		when(dir.getReadingArchive(zip)).thenAnswer(inv -> archive(content));
 	}
 
-	private List<Query> manyUsages(int num) {
+	private static IReadingArchive archive(List<Query> content) {
+		Iterator<Query> it = content.iterator();
+		IReadingArchive ra = mock(IReadingArchive.class);
+		when(ra.hasNext()).thenAnswer(inv -> it.hasNext());
+		when(ra.getNext(Query.class)).thenAnswer(inv -> it.next());
+		return ra;
+	}
+
+	private List<Query> manyUsages(ITypeName type, int num) {
 		List<Query> qs = Lists.newLinkedList();
 		for (int i = 0; i < num; i++) {
-			qs.add(mock(Query.class));
+			Query q = mock(Query.class);
+			when(q.getType()).thenReturn(type);
+			qs.add(q);
 		}
 		return qs;
 	}
@@ -126,4 +157,81 @@ public class ModelHelperTest {
 		List<Usage> actualUsages = usageCaptor.getValue();
 		assertEquals(ModelHelper.MAX_NUM_USAGES, actualUsages.size());
 	}
+
+	@Test
+	public void recommendersAreCached() {
+		ICallsRecommender<Query> a = sut.get(regularType);
+		ICallsRecommender<Query> b = sut.get(regularType);
+		assertSame(a, b);
+		verify(miner, times(1)).createRecommender(anyListOf(Usage.class));
+
+		assertEquals(1, sut.getCache().getNumHits());
+		assertEquals(1, sut.getCache().getNumMisses());
+	}
+
+	@Test
+	public void evictedRecommendersAreRecreated() {
+		sut.getCache().setCapacity(ModelHelper.DEFAULT_MODEL_SIZE);
+		sut.get(regularType);
+		sut.get(typeWithManyUsages);
+		sut.get(regularType);
+		verify(miner, times(3)).createRecommender(anyListOf(Usage.class));
+
+		assertEquals(2, sut.getCache().getNumEvictions());
+	}
+
+	@Test
+	public void concurrentRequestsCreateOneModel() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<ICallsRecommender<Query>>> futures = Lists.newArrayList();
+			for (int i = 0; i < 8; i++) {
+				futures.add(executor.submit(() -> sut.get(regularType)));
+			}
+			for (Future<ICallsRecommender<Query>> f : futures) {
+				assertSame(recommender, f.get());
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		verify(miner, times(1)).createRecommender(anyListOf(Usage.class));
+	}
+
+	@Test
+	public void everyModelIsLearnedByAMinerOfItsOwn() {
+		List<PBNMiner> miners = Lists.newArrayList();
+		sut = new ModelHelper(() -> {
+			PBNMiner m = mock(PBNMiner.class);
+			when(m.createRecommender(anyListOf(Usage.class))).thenReturn(recommender);
+			miners.add(m);
+			return m;
+		}, storageHelper);
+
+		sut.get(regularType);
+		sut.get(typeWithManyUsages);
+
+		assertEquals(2, miners.size());
+		verify(miners.get(0), times(1)).createRecommender(anyListOf(Usage.class));
+		verify(miners.get(1), times(1)).createRecommender(anyListOf(Usage.class));
+	}
+
+	@Test
+	public void numUsagesAreCountedWithoutAModel() {
+		assertEquals(0, sut.getNumUsages(typeWithoutUsages));
+		assertEquals(0, sut.getNumUsages(typeWithEmptyList));
+		assertEquals(1, sut.getNumUsages(regularType));
+		assertEquals(ModelHelper.MAX_NUM_USAGES + 1, sut.getNumUsages(typeWithManyUsages));
+		verify(miner, times(0)).createRecommender(anyListOf(Usage.class));
+	}
+
+	@Test
+	public void samplingIsStable() {
+		when(miner.createRecommender(usageCaptor.capture())).thenReturn(recommender);
+		sut.get(typeWithManyUsages);
+		new ModelHelper(() -> miner, storageHelper).get(typeWithManyUsages);
+
+		List<List<Usage>> samples = usageCaptor.getAllValues();
+		assertEquals(2, samples.size());
+		assertEquals(samples.get(0), samples.get(1));
+	}
 }
\ No newline at end of file
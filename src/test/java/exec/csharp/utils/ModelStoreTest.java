@@ -0,0 +1,86 @@
+/*
+ * Copyright 2014 Technische Universität Darmstadt
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package exec.csharp.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.collect.Lists;
+
+import cc.kave.commons.model.naming.Names;
+import cc.kave.commons.model.naming.types.ITypeName;
+import cc.kave.rsse.calls.usages.CallSites;
+import cc.kave.rsse.calls.usages.Query;
+import cc.kave.rsse.calls.usages.Usage;
+
+public class ModelStoreTest {
+
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	private ModelStore sut;
+
+	@Before
+	public void setup() {
+		sut = new ModelStore(tmp.getRoot().getAbsolutePath());
+	}
+
+	@Test
+	public void keysAreStable() {
+		String a = sut.getKey(type(1), usages(1, 2), "opts", 1);
+		String b = sut.getKey(type(1), usages(1, 2), "opts", 1);
+		assertEquals(a, b);
+	}
+
+	@Test
+	public void keysDependOnAllInputs() {
+		String a = sut.getKey(type(1), usages(1, 2), "opts", 1);
+		assertNotEquals(a, sut.getKey(type(2), usages(1, 2), "opts", 1));
+		assertNotEquals(a, sut.getKey(type(1), usages(1, 3), "opts", 1));
+		assertNotEquals(a, sut.getKey(type(1), usages(1, 2), "other", 1));
+		assertNotEquals(a, sut.getKey(type(1), usages(1, 2), "opts", 2));
+	}
+
+	@Test
+	public void missingEntries() {
+		String key = sut.getKey(type(1), usages(1), "opts", 1);
+		assertFalse(sut.contains(key));
+		assertNull(sut.load(key));
+	}
+
+	private static ITypeName type(int i) {
+		return Names.newType("LT" + i);
+	}
+
+	private static List<Usage> usages(int... ids) {
+		List<Usage> us = Lists.newLinkedList();
+		for (int id : ids) {
+			Query q = new Query();
+			q.addCallSite(CallSites.createReceiverCallSite("LT.m" + id + "()V"));
+			us.add(q);
+		}
+		return us;
+	}
+}
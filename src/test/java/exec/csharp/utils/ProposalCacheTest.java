@@ -0,0 +1,180 @@
+/*
+ * Copyright 2014 Technische Universität Darmstadt
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package exec.csharp.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+import cc.kave.commons.model.naming.Names;
+import cc.kave.commons.model.naming.codeelements.IMethodName;
+import cc.kave.rsse.calls.ICallsRecommender;
+import cc.kave.rsse.calls.datastructures.Tuple;
+import cc.kave.rsse.calls.usages.CallSites;
+import cc.kave.rsse.calls.usages.DefinitionSites;
+import cc.kave.rsse.calls.usages.Query;
+
+public class ProposalCacheTest {
+
+	private ICallsRecommender<Query> rec;
+	private ProposalCache sut;
+
+	@SuppressWarnings("unchecked")
+	@Before
+	public void setup() {
+		rec = mock(ICallsRecommender.class);
+		Set<Tuple<IMethodName, Double>> proposals = Sets.newLinkedHashSet();
+		proposals.add(Tuple.newTuple(Names.newMethod("LT.m9()V"), 0.5));
+		when(rec.query(any(Query.class))).thenReturn(proposals);
+		sut = new ProposalCache(rec);
+	}
+
+	@Test
+	public void proposalsAreReturned() {
+		Set<IMethodName> actual = sut.getProposals(q(1, 2));
+		assertEquals(Sets.newHashSet(Names.newMethod("LT.m9()V")), actual);
+	}
+
+	@Test
+	public void identicalQueriesAreOnlyAskedOnce() {
+		sut.getProposals(q(1, 2));
+		sut.getProposals(q(2, 1));
+		verify(rec, times(1)).query(any(Query.class));
+
+		assertEquals(1, sut.getNumHits());
+		assertEquals(1, sut.getNumMisses());
+		assertEquals(0.5, sut.getHitRate(), 0.0001);
+	}
+
+	@Test
+	public void differentQueriesAreAskedSeparately() {
+		sut.getProposals(q(1, 2));
+		sut.getProposals(q(1, 3));
+		verify(rec, times(2)).query(any(Query.class));
+		assertEquals(2, sut.getSize());
+	}
+
+	@Test
+	public void fingerprintIsIndependentOfCallSiteOrder() {
+		assertEquals(sut.getFingerprint(q(1, 2, 3)), sut.getFingerprint(q(3, 1, 2)));
+		assertNotEquals(sut.getFingerprint(q(1, 2)), sut.getFingerprint(q(1, 2, 3)));
+	}
+
+	@Test
+	public void reorderedCallSitesHitTheSameEntry() {
+		Query a = q(1, 2);
+		a.addCallSite(CallSites.createParameterCallSite("LT.p()V", 1));
+		Query b = new Query();
+		b.setType(Names.newType("LT"));
+		b.setDefinition(DefinitionSites.createUnknownDefinitionSite());
+		b.addCallSite(CallSites.createParameterCallSite("LT.p()V", 1));
+		b.addCallSite(CallSites.createReceiverCallSite("LT.m2()V"));
+		b.addCallSite(CallSites.createReceiverCallSite("LT.m1()V"));
+
+		sut.getProposals(a);
+		sut.getProposals(Lists.newArrayList(b, a));
+		verify(rec, times(1)).query(any(Query.class));
+		assertEquals(1, sut.getSize());
+		assertEquals(2, sut.getNumHits());
+	}
+
+	@Test
+	public void fingerprintIncludesDefinition() {
+		Query a = q(1);
+		Query b = q(1);
+		b.setDefinition(DefinitionSites.createDefinitionByThis());
+		assertNotEquals(sut.getFingerprint(a), sut.getFingerprint(b));
+	}
+
+	@Test
+	public void sizeIsBounded() {
+		sut = new ProposalCache(rec, 1);
+		sut.getProposals(q(1));
+		sut.getProposals(q(2));
+		sut.getProposals(q(1));
+		verify(rec, times(3)).query(any(Query.class));
+		assertEquals(1, sut.getSize());
+		assertEquals(2, sut.getNumEvictions());
+	}
+
+	@Test
+	public void batchesAreAnsweredInOrder() {
+		List<Set<IMethodName>> actuals = sut.getProposals(Lists.newArrayList(q(1), q(2), q(1)));
+		assertEquals(3, actuals.size());
+		for (Set<IMethodName> actual : actuals) {
+			assertEquals(Sets.newHashSet(Names.newMethod("LT.m9()V")), actual);
+		}
+	}
+
+	@Test
+	public void batchesOnlyAskDistinctQueries() {
+		sut.getProposals(Lists.newArrayList(q(1, 2), q(2), q(2, 1), q(2)));
+		verify(rec, times(2)).query(any(Query.class));
+		assertEquals(2, sut.getNumHits());
+		assertEquals(2, sut.getNumMisses());
+	}
+
+	@Test
+	public void batchesUseTheCache() {
+		sut.getProposals(q(1));
+		sut.getProposals(Lists.newArrayList(q(1), q(2)));
+		verify(rec, times(2)).query(any(Query.class));
+		assertEquals(2, sut.getSize());
+	}
+
+	@Test
+	public void batchesAreIndependentOfCacheSize() {
+		sut = new ProposalCache(rec, 1);
+		List<Set<IMethodName>> actuals = sut.getProposals(Lists.newArrayList(q(1), q(2), q(3), q(1)));
+		verify(rec, times(3)).query(any(Query.class));
+		for (Set<IMethodName> actual : actuals) {
+			assertEquals(Sets.newHashSet(Names.newMethod("LT.m9()V")), actual);
+		}
+	}
+
+	@Test
+	public void emptyBatch() {
+		assertEquals(0, sut.getProposals(Lists.<Query> newArrayList()).size());
+	}
+
+	@Test
+	public void hitRateWithoutQueries() {
+		assertEquals(0, sut.getHitRate(), 0.0001);
+	}
+
+	private static Query q(int... ids) {
+		Query q = new Query();
+		q.setType(Names.newType("LT"));
+		q.setDefinition(DefinitionSites.createUnknownDefinitionSite());
+		for (int id : ids) {
+			q.addCallSite(CallSites.createReceiverCallSite("LT.m" + id + "()V"));
+		}
+		return q;
+	}
+}
@@ -17,13 +17,17 @@ package exec.csharp.utils;
 
 import static exec.csharp.utils.QueryUtils.countAdditions;
 import static exec.csharp.utils.QueryUtils.countRemovals;
+import static exec.csharp.utils.QueryUtils.toKey;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 
 import org.junit.Test;
 
+import cc.kave.commons.model.naming.IName;
 import cc.kave.commons.model.naming.Names;
 import cc.kave.rsse.calls.usages.CallSite;
 import cc.kave.rsse.calls.usages.CallSites;
+import cc.kave.rsse.calls.usages.DefinitionSite;
 import cc.kave.rsse.calls.usages.DefinitionSites;
 import cc.kave.rsse.calls.usages.NoUsage;
 import cc.kave.rsse.calls.usages.Query;
@@ -196,6 +200,27 @@ public class QueryUtilsTest {
 		assertDiffToString(new NoUsage(), new NoUsage(), "[- -> -]");
 	}
 
+	@Test
+	public void toKey_callSite() {
+		CallSite a = CallSites.createReceiverCallSite("Ln/T.m1()V");
+		assertEquals(toKey(a), toKey(CallSites.createReceiverCallSite("Ln/T.m1()V")));
+		assertNotEquals(toKey(a), toKey(CallSites.createReceiverCallSite("Ln/T.m2()V")));
+		assertNotEquals(toKey(a), toKey(CallSites.createParameterCallSite("Ln/T.m1()V", 0)));
+	}
+
+	@Test
+	public void toKey_definitionSite() {
+		assertEquals(toKey(DefinitionSites.createDefinitionByThis()), toKey(DefinitionSites.createDefinitionByThis()));
+		assertNotEquals(toKey(DefinitionSites.createDefinitionByThis()),
+				toKey(DefinitionSites.createDefinitionByConstant()));
+	}
+
+	@Test
+	public void toKey_missingNames() {
+		assertEquals("", toKey((DefinitionSite) null));
+		assertEquals("", toKey((IName) null));
+	}
+
 	private void assertDiffToString(Usage a, Usage b, String expected) {
 		String actual = QueryUtils.toDiffString(a, b);
 		assertEquals(expected, actual);
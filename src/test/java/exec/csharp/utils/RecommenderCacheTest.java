@@ -0,0 +1,84 @@
+/*
+ * Copyright 2014 Technische Universität Darmstadt
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package exec.csharp.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class RecommenderCacheTest {
+
+	private RecommenderCache<String, String> sut;
+
+	@Before
+	public void setup() {
+		sut = new RecommenderCache<>(10);
+	}
+
+	@Test
+	public void hitsAndMisses() {
+		assertNull(sut.get("a"));
+		sut.put("a", "A", 3);
+		assertEquals("A", sut.get("a"));
+
+		assertEquals(1, sut.getNumHits());
+		assertEquals(1, sut.getNumMisses());
+		assertEquals(3, sut.getSizeInBytes());
+	}
+
+	@Test
+	public void evictsLeastRecentlyUsedBySize() {
+		sut.put("a", "A", 4);
+		sut.put("b", "B", 4);
+		sut.get("a");
+		sut.put("c", "C", 4);
+
+		assertEquals("A", sut.get("a"));
+		assertNull(sut.get("b"));
+		assertEquals("C", sut.get("c"));
+		assertEquals(1, sut.getNumEvictions());
+		assertEquals(8, sut.getSizeInBytes());
+	}
+
+	@Test
+	public void replacingUpdatesSize() {
+		sut.put("a", "A", 4);
+		sut.put("a", "A2", 6);
+		assertEquals("A2", sut.get("a"));
+		assertEquals(6, sut.getSizeInBytes());
+		assertEquals(0, sut.getNumEvictions());
+	}
+
+	@Test
+	public void entriesLargerThanCapacityAreNotCached() {
+		sut.put("a", "A", 4);
+		sut.put("b", "B", 11);
+		assertNull(sut.get("b"));
+		assertEquals("A", sut.get("a"));
+	}
+
+	@Test
+	public void shrinkingCapacityEvicts() {
+		sut.put("a", "A", 4);
+		sut.put("b", "B", 4);
+		sut.setCapacity(5);
+		assertNull(sut.get("a"));
+		assertEquals("B", sut.get("b"));
+		assertEquals(1, sut.getNumEvictions());
+	}
+}
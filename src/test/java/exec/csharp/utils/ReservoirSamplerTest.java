@@ -0,0 +1,68 @@
+/*
+ * Copyright 2014 Technische Universität Darmstadt
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package exec.csharp.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+public class ReservoirSamplerTest {
+
+	@Test
+	public void smallInputIsKeptCompletely() {
+		List<Integer> actual = sample(5, 10, 1);
+		assertEquals(Lists.newArrayList(0, 1, 2, 3, 4), actual);
+	}
+
+	@Test
+	public void sampleIsBoundedByCapacity() {
+		ReservoirSampler<Integer> sut = new ReservoirSampler<Integer>(10, 1);
+		for (int i = 0; i < 1000; i++) {
+			sut.add(i);
+		}
+		assertEquals(10, sut.getSample().size());
+		assertEquals(1000, sut.getNumSeen());
+		assertEquals(10, Sets.newHashSet(sut.getSample()).size());
+		for (int i : sut.getSample()) {
+			assertTrue(i >= 0 && i < 1000);
+		}
+	}
+
+	@Test
+	public void sameSeedSameSample() {
+		assertEquals(sample(1000, 10, 1), sample(1000, 10, 1));
+	}
+
+	@Test
+	public void differentSeedDifferentSample() {
+		assertNotEquals(sample(1000, 10, 1), sample(1000, 10, 2));
+	}
+
+	private static List<Integer> sample(int num, int capacity, long seed) {
+		ReservoirSampler<Integer> sut = new ReservoirSampler<Integer>(capacity, seed);
+		for (int i = 0; i < num; i++) {
+			sut.add(i);
+		}
+		return sut.getSample();
+	}
+}
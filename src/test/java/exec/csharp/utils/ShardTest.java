@@ -0,0 +1,89 @@
+/*
+ * Copyright 2014 Technische Universität Darmstadt
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package exec.csharp.utils;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+import cc.kave.commons.exceptions.AssertionException;
+import cc.kave.commons.model.naming.Names;
+import cc.kave.commons.model.naming.types.ITypeName;
+
+public class ShardTest {
+
+	@Test
+	public void allContainsEverything() {
+		Set<ITypeName> types = types(100);
+		assertEquals(types, Shard.all().filter(types));
+	}
+
+	@Test
+	public void shardsArePartition() {
+		Set<ITypeName> types = types(100);
+		Set<ITypeName> union = Sets.newHashSet();
+		int sum = 0;
+		for (int i = 0; i < 4; i++) {
+			Set<ITypeName> shard = new Shard(i, 4).filter(types);
+			sum += shard.size();
+			union.addAll(shard);
+		}
+		assertEquals(100, sum);
+		assertEquals(types, union);
+	}
+
+	@Test
+	public void assignmentIsStable() {
+		for (ITypeName type : types(20)) {
+			for (int i = 0; i < 3; i++) {
+				ITypeName copy = Names.newType(type.getIdentifier());
+				assertEquals(new Shard(i, 3).contains(type), new Shard(i, 3).contains(copy));
+			}
+		}
+	}
+
+	@Test
+	public void filterKeepsOrder() {
+		Set<ITypeName> types = types(30);
+		Shard sut = new Shard(1, 2);
+		List<ITypeName> expected = Lists.newArrayList();
+		for (ITypeName t : types) {
+			if (sut.contains(t)) {
+				expected.add(t);
+			}
+		}
+		assertEquals(expected, Lists.newArrayList(sut.filter(types)));
+	}
+
+	@Test(expected = AssertionException.class)
+	public void indexMustBeSmallerThanNumShards() {
+		new Shard(2, 2);
+	}
+
+	private static Set<ITypeName> types(int num) {
+		Set<ITypeName> types = Sets.newLinkedHashSet();
+		for (int i = 0; i < num; i++) {
+			types.add(Names.newType("LT" + i));
+		}
+		return types;
+	}
+}
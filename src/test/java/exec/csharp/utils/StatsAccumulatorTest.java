@@ -0,0 +1,162 @@
+/*
+ * Copyright 2014 Technische Universität Darmstadt
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package exec.csharp.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import cc.kave.commons.evaluation.BoxplotData;
+
+public class StatsAccumulatorTest {
+
+	private static final double EPS = 0.000001;
+
+	@Test
+	public void defaultValues() {
+		StatsAccumulator sut = new StatsAccumulator();
+		assertFalse(sut.hasData());
+		assertEquals(0, sut.getNumValues());
+		assertEquals(0, sut.getVariance(), EPS);
+		assertTrue(sut.isExact());
+	}
+
+	@Test
+	public void basicStatistics() {
+		StatsAccumulator sut = new StatsAccumulator();
+		sut.add(1);
+		sut.add(2);
+		sut.add(3);
+		sut.add(6);
+		assertEquals(4, sut.getNumValues());
+		assertEquals(3, sut.getMean(), EPS);
+		assertEquals(14 / 3.0, sut.getVariance(), EPS);
+		assertEquals(1, sut.getMin(), EPS);
+		assertEquals(6, sut.getMax(), EPS);
+	}
+
+	@Test
+	public void smallDataIsIdenticalToBoxplotData() {
+		StatsAccumulator sut = new StatsAccumulator();
+		BoxplotData bpd = new BoxplotData();
+		for (double d : new double[] { 0.3, 0.1, 0.5, 0.5, 0.9 }) {
+			sut.add(d);
+			bpd.add(d);
+		}
+		assertEquals(bpd.getBoxplot(), sut.getBoxplot());
+		assertEquals(bpd.getMean(), sut.getMean(), 0);
+	}
+
+	@Test
+	public void largeDataSwitchesToHistogram() {
+		StatsAccumulator sut = new StatsAccumulator();
+		for (int i = 0; i <= StatsAccumulator.EXACT_LIMIT; i++) {
+			sut.add(0.5);
+		}
+		assertFalse(sut.isExact());
+		assertEquals(StatsAccumulator.EXACT_LIMIT + 1, sut.getNumValues());
+		assertEquals(0.5, sut.getMean(), EPS);
+		assertEquals(0.5, sut.getQuantile(0.5), EPS);
+	}
+
+	@Test
+	public void quantilesAreAccurate() {
+		Random rnd = new Random(1);
+		double[] vals = new double[100000];
+		StatsAccumulator sut = new StatsAccumulator();
+		for (int i = 0; i < vals.length; i++) {
+			vals[i] = rnd.nextDouble();
+			sut.add(vals[i]);
+		}
+		Arrays.sort(vals);
+		for (double q : new double[] { 0.01, 0.25, 0.5, 0.75, 0.99 }) {
+			double expected = vals[(int) (q * (vals.length - 1))];
+			double actual = sut.getQuantile(q);
+			assertEquals(expected, actual, expected * StatsAccumulator.RELATIVE_ACCURACY * 1.01);
+		}
+		assertEquals(0, sut.getQuantile(0), 0.0001);
+		assertEquals(vals[vals.length - 1], sut.getQuantile(1), EPS);
+	}
+
+	@Test
+	public void zerosAndNegativeValues() {
+		StatsAccumulator sut = new StatsAccumulator();
+		for (int i = 0; i < 3000; i++) {
+			sut.add(i % 3 - 1);
+		}
+		assertEquals(-1, sut.getQuantile(0.1), 0.01);
+		assertEquals(0, sut.getQuantile(0.5), 0.01);
+		assertEquals(1, sut.getQuantile(0.9), 0.01);
+	}
+
+	@Test
+	public void mergingExactPartials() {
+		StatsAccumulator a = new StatsAccumulator();
+		a.add(0.1);
+		a.add(0.2);
+		StatsAccumulator b = new StatsAccumulator();
+		b.add(0.4);
+
+		StatsAccumulator expected = new StatsAccumulator();
+		expected.add(0.1);
+		expected.add(0.2);
+		expected.add(0.4);
+
+		a.merge(b);
+		assertTrue(a.isExact());
+		assertEquals(expected, a);
+		assertEquals(expected.getVariance(), a.getVariance(), EPS);
+	}
+
+	@Test
+	public void mergingLargePartials() {
+		Random rnd = new Random(2);
+		StatsAccumulator all = new StatsAccumulator();
+		StatsAccumulator a = new StatsAccumulator();
+		StatsAccumulator b = new StatsAccumulator();
+		for (int i = 0; i < 5000; i++) {
+			double d = rnd.nextDouble();
+			all.add(d);
+			(i < 200 ? a : b).add(d);
+		}
+		a.merge(b);
+		assertFalse(a.isExact());
+		assertEquals(all.getNumValues(), a.getNumValues());
+		assertEquals(all.getMean(), a.getMean(), EPS);
+		assertEquals(all.getVariance(), a.getVariance(), EPS);
+		assertEquals(all.getMin(), a.getMin(), 0);
+		assertEquals(all.getMax(), a.getMax(), 0);
+		for (double q : new double[] { 0.25, 0.5, 0.75 }) {
+			assertEquals(all.getQuantile(q), a.getQuantile(q), EPS);
+		}
+	}
+
+	@Test
+	public void mergingEmpty() {
+		StatsAccumulator a = new StatsAccumulator();
+		a.add(0.5);
+		a.merge(new StatsAccumulator());
+		assertEquals(1, a.getNumValues());
+		StatsAccumulator b = new StatsAccumulator();
+		b.merge(a);
+		assertEquals(a, b);
+	}
+}
@@ -16,13 +16,21 @@
 package exec.csharp.utils;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.io.File;
+import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 
+import org.apache.commons.io.FileUtils;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -51,6 +59,7 @@ public class StorageHelperTest {
 		assertDirectory(StorageCase.USAGES, "Usages");
 		assertDirectory(StorageCase.MICRO_COMMITS, "MicroCommits");
 		assertDirectory(StorageCase.NETWORKS, "Networks");
+		assertDirectory(StorageCase.CHECKPOINTS, "Checkpoints");
 	}
 
 	@Test
@@ -59,6 +68,7 @@ public class StorageHelperTest {
 		assertDirectory(StorageCase.USAGES, "Usages-xyz");
 		assertDirectory(StorageCase.MICRO_COMMITS, "MicroCommits-xyz");
 		assertDirectory(StorageCase.NETWORKS, "Networks-xyz");
+		assertDirectory(StorageCase.CHECKPOINTS, "Checkpoints-xyz");
 	}
 
 	@Test
@@ -68,6 +78,48 @@ public class StorageHelperTest {
 		assertNestedZip(StorageCase.NETWORKS, "Networks");
 	}
 
+	@Test
+	public void manifestsAreUsedWhenAvailable() {
+		assertNull(sut.getManifest(StorageCase.USAGES));
+		assertFalse(sut.getNestedZipFolder(StorageCase.USAGES) instanceof ManifestZipFolders);
+
+		new File(sut.getPath(StorageCase.USAGES)).mkdirs();
+		TypeManifest manifest = sut.writeManifest(StorageCase.USAGES);
+
+		assertSame(manifest, sut.getManifest(StorageCase.USAGES));
+		assertTrue(sut.getNestedZipFolder(StorageCase.USAGES) instanceof ManifestZipFolders);
+		assertTrue(new StorageHelper(tempFileName).getNestedZipFolder(StorageCase.USAGES) instanceof ManifestZipFolders);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void manifestsOnlyForTypeKeyedStores() {
+		sut.writeManifest(StorageCase.NETWORKS);
+	}
+
+	@Test
+	public void fingerprintsChangeWithTheZips() throws IOException {
+		String empty = sut.getFingerprint(StorageCase.USAGES);
+		File zip = new File(sut.getPath(StorageCase.USAGES), "a/0.zip");
+		zip.getParentFile().mkdirs();
+		FileUtils.writeStringToFile(zip, "x");
+		String one = sut.getFingerprint(StorageCase.USAGES);
+		assertNotEquals(empty, one);
+		assertEquals(one, sut.getFingerprint(StorageCase.USAGES));
+
+		FileUtils.writeStringToFile(zip, "xy");
+		assertNotEquals(one, sut.getFingerprint(StorageCase.USAGES));
+	}
+
+	@Test
+	public void fingerprintsIgnoreOtherFiles() throws IOException {
+		File zip = new File(sut.getPath(StorageCase.USAGES), "a/0.zip");
+		zip.getParentFile().mkdirs();
+		FileUtils.writeStringToFile(zip, "x");
+		String before = sut.getFingerprint(StorageCase.USAGES);
+		FileUtils.writeStringToFile(new File(sut.getPath(StorageCase.USAGES), "other.txt"), "x");
+		assertEquals(before, sut.getFingerprint(StorageCase.USAGES));
+	}
+
 	@Test
 	public void modifierCanBeCleared() {
 		sut.setModifier("xyz");
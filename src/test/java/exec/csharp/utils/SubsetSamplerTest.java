@@ -0,0 +1,89 @@
+/*
+ * Copyright 2014 Technische Universität Darmstadt
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package exec.csharp.utils;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import cc.kave.commons.exceptions.AssertionException;
+
+public class SubsetSamplerTest {
+
+	@Test
+	public void selectionIsSortedAndUnique() {
+		Random rnd = new Random(1);
+		int[] out = new int[5];
+		for (int i = 0; i < 1000; i++) {
+			SubsetSampler.select(rnd, 10, 5, out);
+			for (int j = 0; j < out.length; j++) {
+				assertTrue(out[j] >= 0 && out[j] < 10);
+				if (j > 0) {
+					assertTrue(out[j - 1] < out[j]);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void selectingEverything() {
+		int[] out = new int[4];
+		SubsetSampler.select(new Random(1), 4, 4, out);
+		assertArrayEquals(new int[] { 0, 1, 2, 3 }, out);
+	}
+
+	@Test
+	public void selectingNothing() {
+		int[] out = new int[] { 7 };
+		SubsetSampler.select(new Random(1), 4, 0, out);
+		assertArrayEquals(new int[] { 7 }, out);
+	}
+
+	@Test
+	public void sameSeedSameSelection() {
+		int[] a = new int[3];
+		int[] b = new int[3];
+		SubsetSampler.select(new Random(42), 20, 3, a);
+		SubsetSampler.select(new Random(42), 20, 3, b);
+		assertArrayEquals(a, b);
+	}
+
+	@Test
+	public void selectionIsUniform() {
+		Random rnd = new Random(3);
+		int[] counts = new int[6];
+		int[] out = new int[2];
+		int numRuns = 60000;
+		for (int i = 0; i < numRuns; i++) {
+			SubsetSampler.select(rnd, 6, 2, out);
+			counts[out[0]]++;
+			counts[out[1]]++;
+		}
+		double expected = numRuns * 2 / 6.0;
+		for (int c : counts) {
+			assertEquals(expected, c, expected * 0.05);
+		}
+	}
+
+	@Test(expected = AssertionException.class)
+	public void tooManyElements() {
+		SubsetSampler.select(new Random(1), 3, 4, new int[4]);
+	}
+}
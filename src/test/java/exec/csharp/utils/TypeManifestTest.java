@@ -0,0 +1,165 @@
+/*
+ * Copyright 2014 Technische Universität Darmstadt
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package exec.csharp.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+import cc.kave.commons.model.naming.Names;
+import cc.kave.commons.model.naming.types.ITypeName;
+import cc.kave.commons.utils.io.Directory;
+import cc.kave.commons.utils.io.WritingArchive;
+import cc.kave.rsse.calls.usages.Query;
+
+public class TypeManifestTest {
+
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	private String root;
+
+	@Before
+	public void setup() throws IOException {
+		root = tmp.getRoot().getAbsolutePath();
+		write("T1/0.zip", q(1), q(1));
+		write("T1/1.zip", q(1));
+		write("T2/0.zip", q(2));
+	}
+
+	@Test
+	public void typesAreFound() {
+		TypeManifest sut = create();
+		assertEquals(Sets.newHashSet(type(1), type(2)), sut.getTypes());
+		assertTrue(sut.hasZips(type(1)));
+		assertFalse(sut.hasZips(type(3)));
+	}
+
+	@Test
+	public void zipsAndCountsAreIndexed() {
+		TypeManifest sut = create();
+		assertEquals(Lists.newArrayList("T1/0.zip", "T1/1.zip"), sut.getZips(type(1)));
+		assertEquals(3, sut.getNumEntries(type(1)));
+		assertEquals(1, sut.getNumEntries(type(2)));
+		long expectedSize = new File(root, "T1/0.zip").length() + new File(root, "T1/1.zip").length();
+		assertEquals(expectedSize, sut.getSizeInBytes(type(1)));
+	}
+
+	@Test
+	public void unknownTypes() {
+		TypeManifest sut = create();
+		assertEquals(Lists.newArrayList(), sut.getZips(type(3)));
+		assertEquals(0, sut.getNumEntries(type(3)));
+		assertEquals(0, sut.getSizeInBytes(type(3)));
+	}
+
+	@Test
+	public void roundTrip() {
+		assertFalse(TypeManifest.exists(root));
+		create().write(root);
+		assertTrue(TypeManifest.exists(root));
+
+		TypeManifest sut = TypeManifest.read(root);
+		assertEquals(Sets.newHashSet(type(1), type(2)), sut.getTypes());
+		assertEquals(Lists.newArrayList("T1/0.zip", "T1/1.zip"), sut.getZips(type(1)));
+		assertEquals(3, sut.getNumEntries(type(1)));
+	}
+
+	@Test
+	public void missingManifest() {
+		assertNull(TypeManifest.read(root));
+	}
+
+	@Test
+	public void brokenManifest() throws IOException {
+		FileUtils.writeStringToFile(new File(root, TypeManifest.FILE_NAME), "{xyz");
+		assertNull(TypeManifest.read(root));
+	}
+
+	@Test
+	public void outdatedManifest() throws IOException {
+		create().write(root);
+		write("T3/0.zip", q(3));
+		assertNull(TypeManifest.read(root));
+	}
+
+	@Test
+	public void changedZip() throws IOException {
+		create().write(root);
+		write("T2/0.zip", q(2), q(2));
+		assertNull(TypeManifest.read(root));
+	}
+
+	@Test
+	public void manifestFromOlderVersion() throws IOException {
+		FileUtils.writeStringToFile(new File(root, TypeManifest.FILE_NAME), "[]");
+		assertNull(TypeManifest.read(root));
+	}
+
+	@Test
+	public void invalidate() {
+		create().write(root);
+		TypeManifest.invalidate(root);
+		assertFalse(TypeManifest.exists(root));
+		assertNull(TypeManifest.read(root));
+	}
+
+	@Test
+	public void manifestBackedFolders() {
+		TypeManifest manifest = create();
+		ManifestZipFolders sut = new ManifestZipFolders(root, manifest);
+		assertEquals(Sets.newHashSet(type(1), type(2)), sut.findKeys());
+		assertTrue(sut.hasZips(type(2)));
+		assertFalse(sut.hasZips(type(3)));
+	}
+
+	private TypeManifest create() {
+		return TypeManifest.create(root, Query.class, Query::getType);
+	}
+
+	private void write(String zip, Query... qs) throws IOException {
+		Directory dir = new Directory(root);
+		new File(root, zip).getParentFile().mkdirs();
+		try (WritingArchive wa = dir.getWritingArchive(zip)) {
+			for (Query q : qs) {
+				wa.add(q);
+			}
+		}
+	}
+
+	private static Query q(int typeNum) {
+		Query q = new Query();
+		q.setType(type(typeNum));
+		return q;
+	}
+
+	private static ITypeName type(int num) {
+		return Names.newType("T" + num + ", P");
+	}
+}
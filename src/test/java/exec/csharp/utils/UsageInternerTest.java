@@ -0,0 +1,153 @@
+/*
+ * Copyright 2014 Technische Universität Darmstadt
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package exec.csharp.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+import cc.kave.commons.model.naming.Names;
+import cc.kave.commons.model.naming.codeelements.IMethodName;
+import cc.kave.commons.model.naming.types.ITypeName;
+import cc.kave.rsse.calls.usages.CallSite;
+import cc.kave.rsse.calls.usages.CallSites;
+import cc.kave.rsse.calls.usages.DefinitionSite;
+import cc.kave.rsse.calls.usages.DefinitionSites;
+import cc.kave.rsse.calls.usages.NoUsage;
+import cc.kave.rsse.calls.usages.Query;
+import cc.kave.rsse.calls.usages.Usage;
+import exec.validate_evaluation.microcommits.MicroCommit;
+
+public class UsageInternerTest {
+
+	private UsageInterner sut;
+
+	@Before
+	public void setup() {
+		sut = new UsageInterner();
+	}
+
+	@Test
+	public void namesAreCanonical() {
+		ITypeName a = sut.intern(Names.newType("T, P"));
+		ITypeName b = sut.intern(Names.newType("T, P"));
+		assertSame(a, b);
+		IMethodName m1 = sut.intern(Names.newMethod("[p:void] [T, P].m()"));
+		IMethodName m2 = sut.intern(Names.newMethod("[p:void] [T, P].m()"));
+		assertSame(m1, m2);
+	}
+
+	@Test
+	public void nullsAreKept() {
+		assertNull(sut.intern((ITypeName) null));
+		assertNull(sut.intern((CallSite) null));
+		assertNull(sut.intern((DefinitionSite) null));
+	}
+
+	@Test
+	public void callSitesAndTheirNamesAreCanonical() {
+		CallSite a = sut.intern(CallSites.createReceiverCallSite("[p:void] [T, P].m()"));
+		CallSite b = sut.intern(CallSites.createReceiverCallSite("[p:void] [T, P].m()"));
+		assertSame(a, b);
+		assertSame(a.getMethod(), sut.intern(Names.newMethod("[p:void] [T, P].m()")));
+	}
+
+	@Test
+	public void definitionSitesAreCanonical() {
+		DefinitionSite a = sut.intern(DefinitionSites.createDefinitionByThis());
+		DefinitionSite b = sut.intern(DefinitionSites.createDefinitionByThis());
+		assertSame(a, b);
+	}
+
+	@Test
+	public void usagesAreInternedInPlaceAndStayEqual() {
+		Query a = q(1, 2);
+		Query b = q(1, 2);
+		Query expected = q(1, 2);
+
+		assertSame(a, sut.intern(a));
+		sut.intern(b);
+
+		assertEquals(expected, a);
+		assertEquals(expected, b);
+		assertSame(a.getType(), b.getType());
+		assertSame(a.getClassContext(), b.getClassContext());
+		assertSame(a.getMethodContext(), b.getMethodContext());
+		assertSame(a.getDefinitionSite(), b.getDefinitionSite());
+		for (CallSite cs : a.getAllCallsites()) {
+			assertSame(cs, find(b, cs));
+		}
+	}
+
+	@Test
+	public void callSiteOrderIsKept() {
+		Query q = q(5, 3, 9, 1, 7, 2, 8);
+		List<CallSite> expected = Lists.newArrayList(q.getAllCallsites());
+		sut.intern(q);
+		assertEquals(expected, Lists.newArrayList(q.getAllCallsites()));
+	}
+
+	@Test
+	public void noUsagesAreUnchanged() {
+		NoUsage nu = new NoUsage();
+		assertSame(nu, sut.intern((Usage) nu));
+	}
+
+	@Test
+	public void microCommits() {
+		Query a = q(1);
+		Query b = q(1);
+		MicroCommit mc = MicroCommit.create(new NoUsage(), a);
+		List<MicroCommit> mcs = Lists.newArrayList(mc, MicroCommit.create(b, new NoUsage()));
+		assertSame(mcs, sut.internMicroCommits(mcs));
+		assertSame(a.getAllCallsites().iterator().next(), b.getAllCallsites().iterator().next());
+	}
+
+	@Test
+	public void usageLists() {
+		List<Query> qs = Lists.newArrayList(q(1), q(1));
+		assertSame(qs, sut.internUsages(qs));
+		assertSame(qs.get(0).getType(), qs.get(1).getType());
+	}
+
+	private static CallSite find(Usage u, CallSite expected) {
+		for (CallSite cs : u.getAllCallsites()) {
+			if (cs.equals(expected)) {
+				return cs;
+			}
+		}
+		return null;
+	}
+
+	private static Query q(int... methods) {
+		Query q = new Query();
+		q.setType(Names.newType("T, P"));
+		q.setClassContext(Names.newType("C, P"));
+		q.setMethodContext(Names.newMethod("[p:void] [C, P].ctx()"));
+		q.setDefinition(DefinitionSites.createDefinitionByThis());
+		for (int m : methods) {
+			q.addCallSite(CallSites.createReceiverCallSite("[p:void] [T, P].m" + m + "()"));
+		}
+		return q;
+	}
+}
@@ -30,6 +30,7 @@ import com.google.common.collect.Sets;
 
 import cc.kave.commons.model.naming.Names;
 import cc.kave.commons.model.naming.types.ITypeName;
+import cc.kave.commons.utils.io.NestedZipFolders;
 import cc.kave.rsse.calls.usages.CallSites;
 import cc.kave.rsse.calls.usages.NoUsage;
 import cc.kave.rsse.calls.usages.Query;
@@ -60,6 +61,20 @@ public class MicroCommitIoExtensionTest {
 		assertEquals(Lists.newArrayList("b", "c"), sut.findZipsWith(type(3)));
 	}
 
+	@Test
+	public void findTypes() {
+		assertEquals(Sets.newHashSet(type(1), type(2), type(3)), sut.findTypes());
+	}
+
+	@Test
+	public void findTypesWithUsages() {
+		@SuppressWarnings("unchecked")
+		NestedZipFolders<ITypeName> usages = mock(NestedZipFolders.class);
+		when(usages.hasZips(type(1))).thenReturn(true);
+		when(usages.hasZips(type(3))).thenReturn(true);
+		assertEquals(Sets.newHashSet(type(1), type(3)), sut.findTypesWithUsages(usages));
+	}
+
 	@Test
 	public void findZipsWith() {
 		List<MicroCommit> mcs = Lists.newArrayList(mcCtx(1, 1, 1), mcCtx(1, 1, 2), mcCtx(1, 2, 3), mcCtx(2, 3, 4));
@@ -76,6 +91,25 @@ public class MicroCommitIoExtensionTest {
 		assertEquals(expected, actual);
 	}
 
+	@Test
+	public void locationsAreReturnedInCommitOrder() {
+		List<MicroCommit> mcs = Lists.newArrayList(mcCtx(1, 5, 1), mcCtx(1, 3, 2), mcCtx(1, 9, 3), mcCtx(1, 3, 4),
+				mcCtx(1, 1, 5));
+		io = mock(MicroCommitIo.class);
+		when(io.findZips()).thenReturn(Sets.newHashSet("a"));
+		when(io.read("a")).thenReturn(mcs);
+
+		sut = new MicroCommitIoExtension(io);
+
+		List<List<MicroCommit>> actual = Lists.newArrayList(sut.readZipAndSortByLocation("a", type(1)));
+		List<List<MicroCommit>> expected = Lists.newArrayList();
+		expected.add(Lists.newArrayList(mcCtx(1, 5, 1)));
+		expected.add(Lists.newArrayList(mcCtx(1, 3, 2), mcCtx(1, 3, 4)));
+		expected.add(Lists.newArrayList(mcCtx(1, 9, 3)));
+		expected.add(Lists.newArrayList(mcCtx(1, 1, 5)));
+		assertEquals(expected, actual);
+	}
+
 	private MicroCommit mcCtx(int type, int ctx, int i) {
 		Usage start = new NoUsage();
 		Query end = new Query();
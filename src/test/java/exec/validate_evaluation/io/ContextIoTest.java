@@ -28,6 +28,7 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 
 import cc.kave.commons.model.events.completionevents.Context;
@@ -67,6 +68,19 @@ public class ContextIoTest {
 		assertEquals(expecteds, actuals);
 	}
 
+	@Test
+	public void parallelReadingWorks() {
+		Set<Context> expecteds = Sets.newLinkedHashSet();
+		for (int i = 0; i < 20; i++) {
+			expecteds.add(context(i));
+		}
+		String zip = relFile("a", "b.zip");
+		sut.write(expecteds, zip);
+		sut.setParallelReader(new ParallelArchiveReader(4, true));
+		Set<Context> actuals = sut.read(zip);
+		assertEquals(Lists.newArrayList(expecteds), Lists.newArrayList(actuals));
+	}
+
 	@Test
 	public void correctFileIsCreated() throws IOException {
 		Set<Context> expecteds = Sets.newHashSet(context(1), context(2), context(3));
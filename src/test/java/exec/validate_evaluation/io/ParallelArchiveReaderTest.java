@@ -0,0 +1,102 @@
+/**
+ * Copyright 2016 Technische Universität Darmstadt
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package exec.validate_evaluation.io;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.collect.Lists;
+
+import cc.kave.commons.exceptions.AssertionException;
+import cc.kave.commons.utils.io.Directory;
+import cc.kave.commons.utils.io.WritingArchive;
+
+public class ParallelArchiveReaderTest {
+
+	private static final int NUM_ENTRIES = 500;
+
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	private File zip;
+	private List<Integer> expecteds;
+
+	@Before
+	public void setup() throws IOException {
+		File dir = tmp.newFolder("data");
+		zip = new File(dir, "a.zip");
+		expecteds = Lists.newArrayList();
+		try (WritingArchive wa = new Directory(dir.getAbsolutePath()).getWritingArchive("a.zip")) {
+			for (int i = 0; i < NUM_ENTRIES; i++) {
+				wa.add(i);
+				expecteds.add(i);
+			}
+		}
+	}
+
+	@Test
+	public void sequentialReading() {
+		assertEquals(expecteds, new ParallelArchiveReader(1, true).read(zip, Integer.class));
+	}
+
+	@Test
+	public void orderIsKept() {
+		List<Integer> actuals = new ParallelArchiveReader(4, true).read(zip, ParallelArchiveReaderTest::slowDecode);
+		assertEquals(expecteds, actuals);
+	}
+
+	@Test
+	public void unorderedReadingReturnsAllEntries() {
+		List<Integer> actuals = new ParallelArchiveReader(4, false).read(zip, ParallelArchiveReaderTest::slowDecode);
+		Collections.sort(actuals);
+		assertEquals(expecteds, actuals);
+	}
+
+	@Test
+	public void typesAreDeserialized() {
+		assertEquals(expecteds, new ParallelArchiveReader(4, true).read(zip, Integer.class));
+	}
+
+	@Test(expected = RuntimeException.class)
+	public void decodingErrorsArePropagated() {
+		new ParallelArchiveReader(4, true).read(zip, json -> {
+			throw new IllegalStateException(json);
+		});
+	}
+
+	@Test(expected = AssertionException.class)
+	public void atLeastOneThread() {
+		new ParallelArchiveReader(0, true);
+	}
+
+	private static Integer slowDecode(String json) {
+		int i = Integer.parseInt(json.trim());
+		if (i % 7 == 0) {
+			// finishes after its successors
+			Thread.yield();
+		}
+		return i;
+	}
+}
@@ -16,6 +16,8 @@
 package exec.validate_evaluation.microcommits;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
@@ -32,9 +34,11 @@ import org.junit.rules.TemporaryFolder;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 
+import cc.kave.rsse.calls.usages.CallSite;
 import cc.kave.rsse.calls.usages.CallSites;
 import cc.kave.rsse.calls.usages.Query;
 import cc.kave.rsse.calls.usages.Usage;
+import exec.csharp.utils.ColumnarCodec;
 
 public class MicroCommitIoTest {
 
@@ -76,6 +80,40 @@ public class MicroCommitIoTest {
 		assertTrue(expectedFile.exists());
 	}
 
+	@Test
+	public void columnarCopyIsPreferred() {
+		sut.store(commits(commit(1)), "a.zip");
+		ColumnarCodec.writeMicroCommits(commits(commit(2)), ColumnarCodec.getFile(dir.getAbsolutePath(), "a.zip"));
+		assertEquals(commits(commit(2)), sut.read("a.zip"));
+	}
+
+	@Test
+	public void outdatedColumnarCopyIsIgnored() {
+		sut.store(commits(commit(1)), "a.zip");
+		ColumnarCodec.writeMicroCommits(commits(commit(2)), ColumnarCodec.getFile(dir.getAbsolutePath(), "a.zip"));
+		File zip = new File(dir, "a.zip");
+		zip.setLastModified(zip.lastModified() - 10000);
+		assertEquals(commits(commit(1)), sut.read("a.zip"));
+	}
+
+	@Test
+	public void storingRemovesOutdatedColumnarCopy() {
+		File columnar = ColumnarCodec.getFile(dir.getAbsolutePath(), "a.zip");
+		ColumnarCodec.writeMicroCommits(commits(commit(2)), columnar);
+		sut.store(commits(commit(1)), "a.zip");
+		assertFalse(columnar.exists());
+		assertEquals(commits(commit(1)), sut.read("a.zip"));
+	}
+
+	@Test
+	public void callSitesAreSharedBetweenReads() {
+		sut.store(commits(commit(1)), "a.zip");
+		sut.store(commits(commit(1)), "b.zip");
+		CallSite a = sut.read("a.zip").get(0).getStart().getAllCallsites().iterator().next();
+		CallSite b = sut.read("b.zip").get(0).getStart().getAllCallsites().iterator().next();
+		assertSame(a, b);
+	}
+
 	private String relFile(String... tokens) {
 		return String.join(File.separator, tokens);
 	}
@@ -0,0 +1,76 @@
+/**
+ * Copyright 2016 Technische Universität Darmstadt
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package exec.validate_evaluation.microcommits;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.Sets;
+
+import cc.kave.commons.model.naming.Names;
+import cc.kave.commons.model.naming.types.ITypeName;
+import cc.kave.rsse.calls.usages.Query;
+
+public class MicroCommitTypeIndexTest {
+
+	private MicroCommitTypeIndex sut;
+
+	@Before
+	public void setup() {
+		sut = new MicroCommitTypeIndex();
+		sut.add("a.zip", commit(1));
+		sut.add("b.zip", commit(1));
+		sut.add("b.zip", commit(2));
+	}
+
+	@Test
+	public void zipsAreIndexedByType() {
+		assertEquals(Sets.newHashSet(type(1), type(2)), sut.getTypes());
+		assertEquals(Sets.newHashSet("a.zip", "b.zip"), sut.getZips(type(1)));
+		assertEquals(Sets.newHashSet("b.zip"), sut.getZips(type(2)));
+		assertTrue(sut.getZips(type(3)).isEmpty());
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void zipsCannotBeModified() {
+		sut.getZips(type(1)).add("c.zip");
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void zipsOfUnknownTypesCannotBeModified() {
+		sut.getZips(type(3)).add("c.zip");
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void typesCannotBeModified() {
+		sut.getTypes().clear();
+	}
+
+	private static MicroCommit commit(int typeNum) {
+		Query start = new Query();
+		start.setType(type(typeNum));
+		Query end = new Query();
+		end.setType(type(typeNum));
+		return MicroCommit.create(start, end);
+	}
+
+	private static ITypeName type(int num) {
+		return Names.newType("T" + num + ", P");
+	}
+}